@@ -0,0 +1,186 @@
+package dkit.sd2.codec;
+
+
+/**
+ * BinaryReader - reads values written by BinaryWriter.   Added: October 2026
+ *
+ * Bytes are read from the channel into one reusable ByteBuffer, which is
+ * refilled as it empties.  Strings are decoded through a reusable char[],
+ * so the only object created for a String is the String itself.
+ *
+ * Lengths read from the stream are checked before anything is allocated,
+ * so corrupt data causes an IOException rather than an OutOfMemoryError.
+ */
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+public class BinaryReader
+{
+    public static final int MAX_STRING_BYTES = 16 * 1024 * 1024;   // longer lengths mean corrupt data
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private char[] chars = new char[64];    // grows to the longest String seen
+
+    public BinaryReader(ReadableByteChannel channel)
+    {
+        this(channel, BinaryWriter.DEFAULT_BUFFER_SIZE);
+    }
+
+    public BinaryReader(ReadableByteChannel channel, int bufferSize)
+    {
+        if (bufferSize < 16)
+        {
+            throw new IllegalArgumentException("bufferSize must be >= 16");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer.flip();     // starts empty
+    }
+
+    public int readByte() throws IOException
+    {
+        require(1);
+        return buffer.get() & 0xFF;
+    }
+
+    public int readInt() throws IOException
+    {
+        require(4);
+        return buffer.getInt();
+    }
+
+    public int readVarInt() throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7)
+        {
+            int b = readByte();
+            if (shift == 28 && b > 0x0F)
+            {
+                // only the low 4 bits of the 5th byte fit in an int
+                throw new IOException("Malformed varint");
+            }
+            value |= (b & 0x7F) << shift;
+            if (b < 0x80)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public long readVarLong() throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7)
+        {
+            int b = readByte();
+            if (shift == 63 && b > 0x01)
+            {
+                // only the low bit of the 10th byte fits in a long
+                throw new IOException("Malformed varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if (b < 0x80)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public int readSignedVarInt() throws IOException
+    {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readSignedVarLong() throws IOException
+    {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public String readString() throws IOException
+    {
+        int bytesLeft = readVarInt() - 1;
+        if (bytesLeft == -1)
+        {
+            return null;
+        }
+        if (bytesLeft < 0 || bytesLeft > MAX_STRING_BYTES)
+        {
+            throw new IOException("Corrupt string length: " + bytesLeft);
+        }
+        if (chars.length < bytesLeft)
+        {
+            chars = new char[Math.max(bytesLeft, chars.length * 2)];
+        }
+
+        int count = 0;
+        while (bytesLeft > 0)
+        {
+            require(1);
+            int b = buffer.get(buffer.position()) & 0xFF;
+            int width = b < 0x80 ? 1 : b < 0xE0 ? 2 : b < 0xF0 ? 3 : 4;  // bytes in this char
+            if (width > bytesLeft)
+            {
+                throw new IOException("Corrupt UTF-8 string");
+            }
+            require(width);
+            buffer.get();
+            if (b < 0x80)
+            {
+                chars[count++] = (char) b;
+                bytesLeft -= 1;
+            }
+            else if (b < 0xE0)
+            {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get() & 0x3F));
+                bytesLeft -= 2;
+            }
+            else if (b < 0xF0)
+            {
+                chars[count++] = (char) (((b & 0x0F) << 12)
+                        | ((buffer.get() & 0x3F) << 6)
+                        | (buffer.get() & 0x3F));
+                bytesLeft -= 3;
+            }
+            else
+            {
+                int cp = ((b & 0x07) << 18)
+                        | ((buffer.get() & 0x3F) << 12)
+                        | ((buffer.get() & 0x3F) << 6)
+                        | (buffer.get() & 0x3F);
+                chars[count++] = Character.highSurrogate(cp);
+                chars[count++] = Character.lowSurrogate(cp);
+                bytesLeft -= 4;
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Makes sure at least 'bytes' bytes are available in the buffer,
+     * reading more from the channel if necessary.
+     */
+    private void require(int bytes) throws IOException
+    {
+        if (buffer.remaining() >= bytes)
+        {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes)
+        {
+            if (channel.read(buffer) < 0)
+            {
+                throw new EOFException("Unexpected end of data");
+            }
+        }
+        buffer.flip();
+    }
+}
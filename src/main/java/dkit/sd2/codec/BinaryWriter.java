@@ -0,0 +1,178 @@
+package dkit.sd2.codec;
+
+
+/**
+ * BinaryWriter - writes varints and strings to a channel.  Added: October 2026
+ *
+ * Values are encoded into reusable ByteBuffers and written to the channel
+ * only when the buffers are full (or on flush()), so nothing is allocated
+ * per value written.
+ *
+ * Integers are written as "varints": 7 bits per byte, with the top bit set
+ * on every byte except the last.  Small numbers therefore take 1 or 2 bytes
+ * instead of 4 or 8.  Signed values are "zig-zag" mapped first
+ * (0,-1,1,-2,.. => 0,1,2,3,..) so small negative numbers are also short.
+ *
+ * Strings are written as a varint (UTF-8 length + 1) followed by the UTF-8
+ * bytes; a length of 0 marks a null String.
+ *
+ * Gather mode: with more than one segment the buffers are filled one after
+ * another and handed to the channel in a single gathering write()
+ * (e.g. FileChannel implements GatheringByteChannel).
+ */
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+public class BinaryWriter
+{
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer[] segments;
+    private int current;        // index of the segment being filled
+    private ByteBuffer buffer;  // segments[current]
+
+    public BinaryWriter(WritableByteChannel channel)
+    {
+        this(channel, DEFAULT_BUFFER_SIZE, 1);
+    }
+
+    public BinaryWriter(WritableByteChannel channel, int segmentSize, int segmentCount)
+    {
+        if (segmentSize < 16 || segmentCount < 1)
+        {
+            throw new IllegalArgumentException("segmentSize must be >= 16 and segmentCount >= 1");
+        }
+        if (segmentCount > 1 && !(channel instanceof GatheringByteChannel))
+        {
+            throw new IllegalArgumentException("gather mode needs a GatheringByteChannel");
+        }
+        this.channel = channel;
+        this.segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++)
+        {
+            segments[i] = ByteBuffer.allocateDirect(segmentSize);
+        }
+        this.buffer = segments[0];
+    }
+
+    public void writeByte(int b) throws IOException
+    {
+        ensure(1);
+        buffer.put((byte) b);
+    }
+
+    public void writeInt(int value) throws IOException
+    {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    public void writeVarInt(int value) throws IOException
+    {
+        ensure(5);
+        while ((value & ~0x7F) != 0)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public void writeVarLong(long value) throws IOException
+    {
+        ensure(10);
+        while ((value & ~0x7FL) != 0)
+        {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public void writeSignedVarInt(int value) throws IOException
+    {
+        writeVarInt((value << 1) ^ (value >> 31));      // zig-zag
+    }
+
+    public void writeSignedVarLong(long value) throws IOException
+    {
+        writeVarLong((value << 1) ^ (value >> 63));     // zig-zag
+    }
+
+    public void writeString(String s) throws IOException
+    {
+        if (s == null)
+        {
+            writeVarInt(0);
+            return;
+        }
+        int utf8Length = Utf8.length(s);
+        if (utf8Length > BinaryReader.MAX_STRING_BYTES)
+        {
+            throw new IOException("String too long to encode: " + utf8Length + " bytes");
+        }
+        writeVarInt(utf8Length + 1);
+
+        // Encode directly into the buffer, avoiding String.getBytes()
+        int length = s.length();
+        for (int i = 0; i < length; )
+        {
+            ensure(Utf8.MAX_BYTES_PER_CHAR);
+            i = Utf8.put(buffer, s, i, length);
+        }
+    }
+
+    /**
+     * Writes everything buffered so far to the channel.
+     * The channel is not closed.
+     */
+    public void flush() throws IOException
+    {
+        for (int i = 0; i <= current; i++)
+        {
+            segments[i].flip();
+        }
+
+        if (segments.length == 1)
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+        else
+        {
+            GatheringByteChannel gathering = (GatheringByteChannel) channel;
+            while (segments[current].hasRemaining())
+            {
+                gathering.write(segments, 0, current + 1);
+            }
+        }
+
+        for (int i = 0; i <= current; i++)
+        {
+            segments[i].clear();
+        }
+        current = 0;
+        buffer = segments[0];
+    }
+
+    private void ensure(int bytes) throws IOException
+    {
+        if (buffer.remaining() >= bytes)
+        {
+            return;
+        }
+        if (current + 1 < segments.length)
+        {
+            buffer = segments[++current];
+        }
+        else
+        {
+            flush();
+        }
+    }
+}
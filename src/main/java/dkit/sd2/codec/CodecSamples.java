@@ -0,0 +1,161 @@
+package dkit.sd2.codec;
+
+
+/**
+ * Benchmark of CollectionCodec against Java serialization.  Added: October 2026
+ *
+ * A Map<Long, Book> of BOOKS entries (with DISTINCT_TITLES different titles)
+ * is written to a temporary file and read back.
+ *
+ * The maps.Book class is not Serializable, so the Java serialization
+ * baseline writes the same data as three arrays (keys, codes, titles)
+ * with ObjectOutputStream - the cheapest form serialization can take.
+ *
+ * MB/s is measured on the in-memory size of the data (8-byte key,
+ * 4-byte code and 2 bytes per title char), so the formats are compared on
+ * the same amount of work, not on their own (different) file sizes.
+ */
+import dkit.sd2.maps.Book;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CodecSamples
+{
+    static final int BOOKS = 1_000_000;
+    static final int DISTINCT_TITLES = 1_000;
+
+    public static void main(String[] args) throws Exception
+    {
+        Map<Long, Book> bookMap = new HashMap<>();
+        long dataBytes = 0;
+        for (int i = 0; i < BOOKS; i++)
+        {
+            String title = "Book Title Number " + (i % DISTINCT_TITLES);
+            bookMap.put(200_000L + i, new Book(30_000 + i, title));
+            dataBytes += 8 + 4 + 2L * title.length();
+        }
+
+        Path file = Files.createTempFile("books", ".bin");
+        try
+        {
+            for (int round = 0; round < 2; round++)     // first round warms up the JIT
+            {
+                System.out.println(round == 0 ? "Warm-up" : "Results");
+                codec(file, bookMap, dataBytes, false, 1);
+                codec(file, bookMap, dataBytes, true, 1);
+                codec(file, bookMap, dataBytes, true, 4);
+                serialization(file, bookMap, dataBytes);
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static void codec(Path file, Map<Long, Book> bookMap, long dataBytes,
+                      boolean dictionary, int segments) throws IOException
+    {
+        CollectionCodec codec = new CollectionCodec(dictionary);
+
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            BinaryWriter out = new BinaryWriter(channel, BinaryWriter.DEFAULT_BUFFER_SIZE / segments, segments);
+            codec.writeBookMap(out, bookMap);
+        }
+        long writeTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Map<Long, Book> result;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            result = codec.readBookHashMap(new BinaryReader(channel));
+        }
+        long readTime = System.nanoTime() - start;
+
+        check(bookMap, result);
+        report("codec" + (dictionary ? " +dictionary" : "            ")
+                + (segments > 1 ? " gather x" + segments : "          "),
+                Files.size(file), dataBytes, writeTime, readTime);
+    }
+
+    static void serialization(Path file, Map<Long, Book> bookMap, long dataBytes) throws Exception
+    {
+        long start = System.nanoTime();
+        long[] keys = new long[bookMap.size()];
+        int[] codes = new int[bookMap.size()];
+        String[] titles = new String[bookMap.size()];
+        int i = 0;
+        for (Map.Entry<Long, Book> entry : bookMap.entrySet())
+        {
+            keys[i] = entry.getKey();
+            codes[i] = entry.getValue().getCode();
+            titles[i] = entry.getValue().getTitle();
+            i++;
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), BinaryWriter.DEFAULT_BUFFER_SIZE)))
+        {
+            out.writeObject(keys);
+            out.writeObject(codes);
+            out.writeObject(titles);
+        }
+        long writeTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Map<Long, Book> result;
+        try (ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BinaryWriter.DEFAULT_BUFFER_SIZE)))
+        {
+            keys = (long[]) in.readObject();
+            codes = (int[]) in.readObject();
+            titles = (String[]) in.readObject();
+            result = new HashMap<>((int) (keys.length / 0.75f) + 1);
+            for (i = 0; i < keys.length; i++)
+            {
+                result.put(keys[i], new Book(codes[i], titles[i]));
+            }
+        }
+        long readTime = System.nanoTime() - start;
+
+        check(bookMap, result);
+        report("java serialization         ", Files.size(file), dataBytes, writeTime, readTime);
+    }
+
+    static void check(Map<Long, Book> expected, Map<Long, Book> actual)
+    {
+        if (expected.size() != actual.size())
+        {
+            throw new IllegalStateException("Size mismatch: " + actual.size());
+        }
+        for (Map.Entry<Long, Book> entry : expected.entrySet())
+        {
+            Book book = actual.get(entry.getKey());
+            if (book == null || book.getCode() != entry.getValue().getCode()
+                    || !book.getTitle().equals(entry.getValue().getTitle()))
+            {
+                throw new IllegalStateException("Mismatch at key " + entry.getKey());
+            }
+        }
+    }
+
+    static void report(String name, long fileBytes, long dataBytes, long writeNanos, long readNanos)
+    {
+        double mb = dataBytes / (1024.0 * 1024.0);
+        System.out.printf("%s: file %6.1f MB   write %7.1f MB/s   read %7.1f MB/s%n",
+                name, fileBytes / (1024.0 * 1024.0),
+                mb / (writeNanos / 1e9), mb / (readNanos / 1e9));
+    }
+}
@@ -0,0 +1,287 @@
+package dkit.sd2.codec;
+
+
+/**
+ * CollectionCodec - compact binary format for the Book and Student
+ * collections used in the sets and maps samples.           Added: October 2026
+ *
+ * Layout
+ *   header : magic "BKS1" (4 bytes), kind (1 byte), flags (1 byte),
+ *            number of records (varint)
+ *   records: Set<Book>          code, title
+ *            Map<Long, Book>    key, code, title
+ *            Map<Student, Book> id, name, code, title
+ *
+ * Numbers are zig-zag varints and Strings are length-prefixed UTF-8
+ * (see BinaryWriter).
+ *
+ * With the DICTIONARY flag, each String is written in full the first time
+ * it appears; after that only its position in the dictionary is written.
+ * This pays off when the same titles or names are repeated many times.
+ * A String reference is a varint: 0 means a new String follows,
+ * n > 0 means the (n-1)th String already seen.
+ *
+ * The readers build the collection directly as records are decoded.
+ * HashMap and HashSet are created large enough to hold every record
+ * without rehashing.
+ */
+import dkit.sd2.maps.Book;
+import dkit.sd2.maps.Student;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class CollectionCodec
+{
+    static final int MAGIC = 0x424B5331;    // "BKS1"
+
+    static final int KIND_BOOK_SET = 1;
+    static final int KIND_BOOK_MAP = 2;
+    static final int KIND_STUDENT_BOOK_MAP = 3;
+
+    static final int FLAG_DICTIONARY = 1;
+
+    static final int MAX_PRESIZE = 1 << 20;     // largest count used to pre-size a HashMap/HashSet
+
+    private final boolean dictionary;
+    private final Map<String, Integer> writeDictionary = new HashMap<>();
+    private final List<String> readDictionary = new ArrayList<>();
+    private boolean readingDictionary;      // flag from the header being read
+
+    /**
+     * @param dictionary true to write repeated Strings once only
+     *                   (ignored when reading; the flag in the data is used)
+     */
+    public CollectionCodec(boolean dictionary)
+    {
+        this.dictionary = dictionary;
+    }
+
+    // ---------------------------------------------------------- Set<Book>
+
+    public void writeBookSet(BinaryWriter out, Set<dkit.sd2.sets.Book> books) throws IOException
+    {
+        writeHeader(out, KIND_BOOK_SET, books.size());
+        for (dkit.sd2.sets.Book book : books)
+        {
+            out.writeSignedVarInt(book.getCode());
+            writeText(out, book.getTitle());
+        }
+        out.flush();
+    }
+
+    public Set<dkit.sd2.sets.Book> readBookHashSet(BinaryReader in) throws IOException
+    {
+        int count = readHeader(in, KIND_BOOK_SET);
+        Set<dkit.sd2.sets.Book> books = new HashSet<>(capacityFor(count));
+        readBooks(in, count, books);
+        return books;
+    }
+
+    /**
+     * @param order Comparator for the TreeSet, or null for natural ordering
+     */
+    public Set<dkit.sd2.sets.Book> readBookTreeSet(BinaryReader in, Comparator<dkit.sd2.sets.Book> order) throws IOException
+    {
+        int count = readHeader(in, KIND_BOOK_SET);
+        Set<dkit.sd2.sets.Book> books = new TreeSet<>(order);
+        readBooks(in, count, books);
+        return books;
+    }
+
+    private void readBooks(BinaryReader in, int count, Set<dkit.sd2.sets.Book> books) throws IOException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            int code = in.readSignedVarInt();
+            books.add(new dkit.sd2.sets.Book(code, readText(in)));
+        }
+    }
+
+    // ----------------------------------------------------- Map<Long, Book>
+
+    public void writeBookMap(BinaryWriter out, Map<Long, Book> bookMap) throws IOException
+    {
+        writeHeader(out, KIND_BOOK_MAP, bookMap.size());
+        for (Map.Entry<Long, Book> entry : bookMap.entrySet())
+        {
+            Book book = entry.getValue();
+            out.writeSignedVarLong(entry.getKey());
+            out.writeSignedVarInt(book.getCode());
+            writeText(out, book.getTitle());
+        }
+        out.flush();
+    }
+
+    public Map<Long, Book> readBookHashMap(BinaryReader in) throws IOException
+    {
+        int count = readHeader(in, KIND_BOOK_MAP);
+        Map<Long, Book> bookMap = new HashMap<>(capacityFor(count));
+        readBookEntries(in, count, bookMap);
+        return bookMap;
+    }
+
+    public Map<Long, Book> readBookTreeMap(BinaryReader in) throws IOException
+    {
+        int count = readHeader(in, KIND_BOOK_MAP);
+        Map<Long, Book> bookMap = new TreeMap<>();
+        readBookEntries(in, count, bookMap);
+        return bookMap;
+    }
+
+    private void readBookEntries(BinaryReader in, int count, Map<Long, Book> bookMap) throws IOException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            long key = in.readSignedVarLong();
+            int code = in.readSignedVarInt();
+            bookMap.put(key, new Book(code, readText(in)));
+        }
+    }
+
+    // -------------------------------------------------- Map<Student, Book>
+
+    public void writeFavouriteBooks(BinaryWriter out, Map<Student, Book> favouriteBook) throws IOException
+    {
+        writeHeader(out, KIND_STUDENT_BOOK_MAP, favouriteBook.size());
+        for (Map.Entry<Student, Book> entry : favouriteBook.entrySet())
+        {
+            Student student = entry.getKey();
+            Book book = entry.getValue();
+            out.writeSignedVarInt(student.getId());
+            writeText(out, student.getName());
+            out.writeSignedVarInt(book.getCode());
+            writeText(out, book.getTitle());
+        }
+        out.flush();
+    }
+
+    public Map<Student, Book> readFavouriteBooks(BinaryReader in) throws IOException
+    {
+        int count = readHeader(in, KIND_STUDENT_BOOK_MAP);
+        Map<Student, Book> favouriteBook = new HashMap<>(capacityFor(count));
+        readFavouriteBookEntries(in, count, favouriteBook);
+        return favouriteBook;
+    }
+
+    /**
+     * Student does not implement Comparable, so a Comparator must be given
+     * for the TreeMap (e.g. HashingStrategies.STUDENT_ID_ORDER).
+     */
+    public Map<Student, Book> readFavouriteBooksTreeMap(BinaryReader in, Comparator<Student> order) throws IOException
+    {
+        int count = readHeader(in, KIND_STUDENT_BOOK_MAP);
+        Map<Student, Book> favouriteBook = new TreeMap<>(order);
+        readFavouriteBookEntries(in, count, favouriteBook);
+        return favouriteBook;
+    }
+
+    private void readFavouriteBookEntries(BinaryReader in, int count, Map<Student, Book> favouriteBook) throws IOException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            int id = in.readSignedVarInt();
+            Student student = new Student(id, readText(in));
+            int code = in.readSignedVarInt();
+            favouriteBook.put(student, new Book(code, readText(in)));
+        }
+    }
+
+    // ------------------------------------------------------------ helpers
+
+    private void writeHeader(BinaryWriter out, int kind, int count) throws IOException
+    {
+        writeDictionary.clear();
+        out.writeInt(MAGIC);
+        out.writeByte(kind);
+        out.writeByte(dictionary ? FLAG_DICTIONARY : 0);
+        out.writeVarInt(count);
+    }
+
+    /**
+     * Reads and checks the header, returning the number of records.
+     */
+    private int readHeader(BinaryReader in, int expectedKind) throws IOException
+    {
+        if (in.readInt() != MAGIC)
+        {
+            throw new IOException("Not a CollectionCodec stream");
+        }
+        int kind = in.readByte();
+        if (kind != expectedKind)
+        {
+            throw new IOException("Expected record kind " + expectedKind + " but found " + kind);
+        }
+        readingDictionary = (in.readByte() & FLAG_DICTIONARY) != 0;
+        readDictionary.clear();
+        int count = in.readVarInt();
+        if (count < 0)
+        {
+            throw new IOException("Corrupt record count: " + count);
+        }
+        return count;
+    }
+
+    private void writeText(BinaryWriter out, String s) throws IOException
+    {
+        if (!dictionary)
+        {
+            out.writeString(s);
+            return;
+        }
+        Integer index = (s == null) ? null : writeDictionary.get(s);
+        if (index != null)
+        {
+            out.writeVarInt(index + 1);
+            return;
+        }
+        out.writeVarInt(0);     // new String follows
+        out.writeString(s);
+        if (s != null)
+        {
+            writeDictionary.put(s, writeDictionary.size());
+        }
+    }
+
+    private String readText(BinaryReader in) throws IOException
+    {
+        if (!readingDictionary)
+        {
+            return in.readString();
+        }
+        int ref = in.readVarInt();
+        if (ref > 0)
+        {
+            if (ref > readDictionary.size())
+            {
+                throw new IOException("Corrupt dictionary reference: " + ref);
+            }
+            return readDictionary.get(ref - 1);
+        }
+        String s = in.readString();
+        if (s != null)
+        {
+            readDictionary.add(s);
+        }
+        return s;
+    }
+
+    /**
+     * Initial capacity for 'count' entries without rehashing (default load
+     * factor 0.75).  The count comes from the stream, so it is capped:
+     * a corrupt count must not cause a huge allocation before any record
+     * has been read.  Beyond the cap the map simply grows as usual.
+     */
+    private static int capacityFor(int count)
+    {
+        return (int) (Math.min(count, MAX_PRESIZE) / 0.75f) + 1;
+    }
+}
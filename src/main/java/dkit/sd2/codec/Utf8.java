@@ -0,0 +1,105 @@
+package dkit.sd2.codec;
+
+
+/**
+ * Utf8 - encodes chars as UTF-8 directly into a ByteBuffer.   Added: October 2026
+ *
+ * Used by BinaryWriter and by export.TextBuffer, so that Strings are written
+ * without String.getBytes() creating a byte[] per String.
+ *
+ * A surrogate pair is written as one 4-byte code point; an unpaired
+ * surrogate is written as '?', as String.getBytes() does.
+ */
+import java.nio.ByteBuffer;
+
+public final class Utf8
+{
+    public static final int MAX_BYTES_PER_CHAR = 4;     // bytes put() can write in one call
+
+    private Utf8()
+    {
+    }
+
+    /**
+     * Writes the char at s[index] (or the surrogate pair starting there, if
+     * its low surrogate is before 'end') and returns the index of the next
+     * char.  The buffer must have at least MAX_BYTES_PER_CHAR bytes remaining.
+     */
+    public static int put(ByteBuffer buffer, String s, int index, int end)
+    {
+        char c = s.charAt(index);
+        if (Character.isHighSurrogate(c) && index + 1 < end && Character.isLowSurrogate(s.charAt(index + 1)))
+        {
+            int cp = Character.toCodePoint(c, s.charAt(index + 1));
+            buffer.put((byte) (0xF0 | (cp >> 18)));
+            buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+            return index + 2;
+        }
+        putChar(buffer, c);
+        return index + 1;
+    }
+
+    /**
+     * Writes one char (1 to 3 bytes); a surrogate on its own becomes '?'.
+     */
+    public static void putChar(ByteBuffer buffer, char c)
+    {
+        if (c < 0x80)
+        {
+            buffer.put((byte) c);
+        }
+        else if (c < 0x800)
+        {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        else if (Character.isSurrogate(c))
+        {
+            buffer.put((byte) '?');     // unpaired surrogate, as String.getBytes() does
+        }
+        else
+        {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    /**
+     * Number of bytes put() writes for the whole of s.
+     */
+    public static int length(String s)
+    {
+        int bytes = 0;
+        int length = s.length();
+        for (int i = 0; i < length; i++)
+        {
+            char c = s.charAt(i);
+            if (c < 0x80)
+            {
+                bytes += 1;
+            }
+            else if (c < 0x800)
+            {
+                bytes += 2;
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1)))
+            {
+                bytes += 4;
+                i++;
+            }
+            else if (Character.isSurrogate(c))
+            {
+                bytes += 1;
+            }
+            else
+            {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
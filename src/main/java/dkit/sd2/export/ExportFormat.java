@@ -0,0 +1,16 @@
+package dkit.sd2.export;
+
+/*                                                        October 2026
+ * Text formats supported by the export pipeline.
+ *
+ *  CSV          header line, then comma separated values; text fields are
+ *               quoted when they contain a comma, quote or line break
+ *  JSON_LINES   one JSON object per line, e.g. {"code":30004,"title":"Jaws"}
+ *  FIXED_WIDTH  header line, then each field padded (or cut) to its width
+ */
+public enum ExportFormat
+{
+    CSV,
+    JSON_LINES,
+    FIXED_WIDTH
+}
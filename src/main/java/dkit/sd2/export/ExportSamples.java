@@ -0,0 +1,98 @@
+package dkit.sd2.export;
+
+/*                                                        October 2026
+ * Benchmark: exporting a Map<Long, Book> with Exporter, compared with
+ * printing one line per entry (as in MapSamples.map3()).
+ *
+ * The println baseline uses a PrintStream set up the same way as
+ * System.out (autoflush, 128 byte buffer) but writing to a file, so the
+ * speed of the terminal is not measured.
+ *
+ * Usage: ExportSamples [rows]      (default 10,000,000)
+ */
+
+
+import dkit.sd2.maps.Book;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ExportSamples
+{
+    public static void main(String[] args) throws IOException
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        String[] titles = new String[1000];     // shared, to keep the heap small
+        for (int i = 0; i < titles.length; i++)
+        {
+            titles[i] = "Book, Title \"" + i + "\"";
+        }
+        Map<Long, Book> bookMap = new HashMap<>((int) (rows / 0.75f) + 1);
+        for (int i = 0; i < rows; i++)
+        {
+            bookMap.put(200_000L + i, new Book(30_000 + i, titles[i % titles.length]));
+        }
+
+        Path file = Files.createTempFile("books", ".txt");
+        try
+        {
+            for (int round = 0; round < 2; round++)     // first round warms up the JIT
+            {
+                System.out.println(round == 0 ? "Warm-up" : "Results");
+                println(file, bookMap);
+                export(file, bookMap, ExportFormat.CSV, 1);
+                export(file, bookMap, ExportFormat.JSON_LINES, 1);
+                export(file, bookMap, ExportFormat.FIXED_WIDTH, 1);
+                export(file, bookMap, ExportFormat.CSV, Runtime.getRuntime().availableProcessors());
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static void println(Path file, Map<Long, Book> bookMap) throws IOException
+    {
+        long start = System.nanoTime();
+        try (PrintStream out = new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(file.toFile()), 128), true))
+        {
+            for (Long key : bookMap.keySet())
+            {
+                Book book = bookMap.get(key);
+                out.println(key + " Title: "
+                        + book.getTitle() + ", Code:" + book.getCode());
+            }
+        }
+        report("println              ", bookMap.size(), file, System.nanoTime() - start);
+    }
+
+    static void export(Path file, Map<Long, Book> bookMap, ExportFormat format, int partitions) throws IOException
+    {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            Exporter.exportBookMap(bookMap, format, channel, partitions);
+        }
+        String name = String.format("%-11s x%-2d part.", format, partitions);
+        report(name, bookMap.size(), file, System.nanoTime() - start);
+    }
+
+    static void report(String name, int rows, Path file, long nanos) throws IOException
+    {
+        double seconds = nanos / 1e9;
+        System.out.printf("%s: %,12.0f rows/s   %7.1f MB/s%n", name,
+                rows / seconds, Files.size(file) / (1024.0 * 1024.0) / seconds);
+    }
+}
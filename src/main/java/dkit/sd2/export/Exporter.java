@@ -0,0 +1,224 @@
+package dkit.sd2.export;
+
+/*                                                        October 2026
+ * Exporter - streams Sets and Maps of Books and Students to a channel
+ * (e.g. a FileChannel) as CSV, JSON lines or fixed-width text.
+ *
+ * Rows are encoded into a TextBuffer and written in large batches,
+ * instead of one System.out.println() (with String concatenation and a
+ * lock) per element as in SetsExamples.display() and MapSamples.
+ *
+ * Parallel export: with partitions > 1 the collection is split (using its
+ * Spliterator) and each part is encoded on its own thread, into its own
+ * TextBuffer, all writing to the same channel.  Each write holds whole rows
+ * only, so rows are never mixed up, but the ORDER of the rows is not kept;
+ * use partitions = 1 when exporting a TreeSet or TreeMap in sorted order.
+ */
+
+
+import dkit.sd2.maps.Book;
+import dkit.sd2.maps.Student;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class Exporter
+{
+    // fixed widths: int columns fit -2147483648, long columns -9223372036854775808
+    static final String[] BOOK_COLUMNS = {"code", "title"};
+    static final int[] BOOK_WIDTHS = {11, 40};
+
+    static final String[] BOOK_MAP_COLUMNS = {"key", "code", "title"};
+    static final int[] BOOK_MAP_WIDTHS = {20, 11, 40};
+
+    static final String[] FAVOURITE_BOOK_COLUMNS = {"id", "name", "code", "title"};
+    static final int[] FAVOURITE_BOOK_WIDTHS = {11, 30, 11, 40};
+
+    /**
+     * Writes the fields of one element as a row.
+     */
+    interface RowWriter<T>
+    {
+        void write(RowEncoder encoder, T element) throws IOException;
+    }
+
+    public static void exportBooks(Collection<dkit.sd2.sets.Book> books, ExportFormat format,
+                                   WritableByteChannel channel, int partitions) throws IOException
+    {
+        export(books, BOOK_COLUMNS, BOOK_WIDTHS, (encoder, book) ->
+        {
+            encoder.field(book.getCode());
+            encoder.field(book.getTitle());
+        }, format, channel, partitions);
+    }
+
+    public static void exportBookMap(Map<Long, Book> bookMap, ExportFormat format,
+                                     WritableByteChannel channel, int partitions) throws IOException
+    {
+        export(bookMap.entrySet(), BOOK_MAP_COLUMNS, BOOK_MAP_WIDTHS, (encoder, entry) ->
+        {
+            encoder.field(entry.getKey());
+            encoder.field(entry.getValue().getCode());
+            encoder.field(entry.getValue().getTitle());
+        }, format, channel, partitions);
+    }
+
+    public static void exportFavouriteBooks(Map<Student, Book> favouriteBook, ExportFormat format,
+                                            WritableByteChannel channel, int partitions) throws IOException
+    {
+        export(favouriteBook.entrySet(), FAVOURITE_BOOK_COLUMNS, FAVOURITE_BOOK_WIDTHS, (encoder, entry) ->
+        {
+            encoder.field(entry.getKey().getId());
+            encoder.field(entry.getKey().getName());
+            encoder.field(entry.getValue().getCode());
+            encoder.field(entry.getValue().getTitle());
+        }, format, channel, partitions);
+    }
+
+    static <T> void export(Collection<T> elements, String[] names, int[] widths, RowWriter<? super T> rows,
+                           ExportFormat format, WritableByteChannel channel, int partitions) throws IOException
+    {
+        TextBuffer out = new TextBuffer(channel);
+        RowEncoder encoder = new RowEncoder(format, out, names, widths);
+        encoder.header();
+
+        if (partitions <= 1)
+        {
+            writeRows(elements.spliterator(), rows, encoder, null);
+            out.flush();
+            return;
+        }
+        out.flush();    // header goes first
+
+        List<Spliterator<T>> parts = split(elements.spliterator(), partitions);
+        ExecutorService pool = Executors.newFixedThreadPool(parts.size());
+        AtomicBoolean stop = new AtomicBoolean();      // set when any part fails
+        List<Future<?>> results = new ArrayList<>();
+        try
+        {
+            for (Spliterator<T> part : parts)
+            {
+                results.add(pool.submit(() ->
+                {
+                    TextBuffer partOut = new TextBuffer(channel);
+                    writeRows(part, rows, new RowEncoder(format, partOut, names, widths), stop);
+                    partOut.flush();
+                    return null;
+                }));
+            }
+            for (Future<?> result : results)
+            {
+                result.get();
+            }
+        }
+        catch (ExecutionException e)
+        {
+            stopAll(pool, results, stop);
+            if (e.getCause() instanceof IOException)
+            {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Export failed", e.getCause());
+        }
+        catch (InterruptedException e)
+        {
+            stopAll(pool, results, stop);
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Stops the other parts after a failure.  Workers are NOT interrupted:
+     * an interrupt during FileChannel.write() would close the caller's
+     * channel.  Instead, parts not yet started are cancelled and running
+     * parts stop at their next row.  Waits for them, so nothing is written
+     * to the channel after export() returns.
+     */
+    private static void stopAll(ExecutorService pool, List<Future<?>> results, AtomicBoolean stop)
+    {
+        stop.set(true);
+        for (Future<?> result : results)
+        {
+            result.cancel(false);
+        }
+        pool.shutdown();
+        boolean interrupted = false;
+        while (!pool.isTerminated())
+        {
+            try
+            {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes a row per element, stopping early if 'stop' (may be null) is set.
+     */
+    private static <T> void writeRows(Spliterator<T> elements, RowWriter<? super T> rows,
+                                      RowEncoder encoder, AtomicBoolean stop) throws IOException
+    {
+        Iterator<T> iterator = Spliterators.iterator(elements);
+        while (iterator.hasNext())
+        {
+            if (stop != null && stop.get())
+            {
+                return;
+            }
+            encoder.beginRow();
+            rows.write(encoder, iterator.next());
+            encoder.endRow();
+        }
+    }
+
+    /**
+     * Splits into (at most) the given number of parts, splitting every
+     * part in turn so the parts stay roughly the same size.
+     */
+    private static <T> List<Spliterator<T>> split(Spliterator<T> elements, int partitions)
+    {
+        List<Spliterator<T>> parts = new ArrayList<>();
+        parts.add(elements);
+        boolean splitAny = true;
+        while (parts.size() < partitions && splitAny)
+        {
+            splitAny = false;
+            for (int i = 0, n = parts.size(); i < n && parts.size() < partitions; i++)
+            {
+                Spliterator<T> prefix = parts.get(i).trySplit();
+                if (prefix != null)
+                {
+                    parts.add(prefix);
+                    splitAny = true;
+                }
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,257 @@
+package dkit.sd2.export;
+
+/*                                                        October 2026
+ * RowEncoder - writes rows of fields into a TextBuffer in one ExportFormat.
+ *
+ * The column names (and widths, for FIXED_WIDTH) are given once, when the
+ * encoder is created.  Each row is then written as:
+ *
+ *      encoder.beginRow();
+ *      encoder.field(book.getCode());
+ *      encoder.field(book.getTitle());
+ *      encoder.endRow();
+ *
+ * In FIXED_WIDTH format, numbers are right-aligned and text is left-aligned
+ * and cut short if it is wider than its column; control characters such as
+ * line breaks in text are written as spaces.  Numbers are never cut,
+ * as that would change their value.
+ */
+
+
+import java.io.IOException;
+
+public class RowEncoder
+{
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ExportFormat format;
+    private final TextBuffer out;
+    private final String[] names;
+    private final int[] widths;
+    private int field;          // index of the next field in the current row
+
+    public RowEncoder(ExportFormat format, TextBuffer out, String[] names, int[] widths)
+    {
+        if (names.length != widths.length)
+        {
+            throw new IllegalArgumentException("names and widths must have the same length");
+        }
+        this.format = format;
+        this.out = out;
+        this.names = names;
+        this.widths = widths;
+    }
+
+    /**
+     * Writes the header line (CSV and FIXED_WIDTH only).
+     */
+    public void header() throws IOException
+    {
+        if (format == ExportFormat.JSON_LINES)
+        {
+            return;
+        }
+        beginRow();
+        for (String name : names)
+        {
+            field(name);
+        }
+        endRow();
+    }
+
+    public void beginRow() throws IOException
+    {
+        field = 0;
+        if (format == ExportFormat.JSON_LINES)
+        {
+            out.appendAscii('{');
+        }
+    }
+
+    public void field(long value) throws IOException
+    {
+        separator();
+        switch (format)
+        {
+            case FIXED_WIDTH:
+                int digits = TextBuffer.length(value);
+                if (digits < widths[field])
+                {
+                    out.appendSpaces(widths[field] - digits);
+                }
+                out.append(value);
+                break;
+            case JSON_LINES:
+                name();
+                out.append(value);
+                break;
+            default:
+                out.append(value);
+        }
+        field++;
+    }
+
+    public void field(String value) throws IOException
+    {
+        separator();
+        switch (format)
+        {
+            case FIXED_WIDTH:
+                fixedWidthText(value, widths[field]);
+                break;
+            case JSON_LINES:
+                name();
+                jsonText(value);
+                break;
+            default:
+                csvText(value);
+        }
+        field++;
+    }
+
+    public void endRow() throws IOException
+    {
+        if (format == ExportFormat.JSON_LINES)
+        {
+            out.appendAscii('}');
+        }
+        out.appendAscii('\n');
+        out.endRow();
+    }
+
+    private void separator() throws IOException
+    {
+        if (field > 0)
+        {
+            out.appendAscii(format == ExportFormat.FIXED_WIDTH ? ' ' : ',');
+        }
+    }
+
+    private void name() throws IOException
+    {
+        out.appendAscii('"').append(names[field]).appendAscii('"').appendAscii(':');
+    }
+
+    private void fixedWidthText(String value, int width) throws IOException
+    {
+        int written = 0;    // chars written so far
+        if (value != null)
+        {
+            int length = Math.min(value.length(), width);
+            while (written < length)
+            {
+                char c = value.charAt(written);
+                if (c < 0x20)
+                {
+                    out.appendAscii(' ');   // a line break would break the layout
+                    written++;
+                }
+                else if (Character.isHighSurrogate(c) && written + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(written + 1)))
+                {
+                    if (written + 2 > width)
+                    {
+                        break;      // the pair does not fit; never write half of it
+                    }
+                    out.append(value, written, written + 2);
+                    written += 2;
+                }
+                else
+                {
+                    out.append(c);
+                    written++;
+                }
+            }
+        }
+        out.appendSpaces(width - written);
+    }
+
+    private void csvText(String value) throws IOException
+    {
+        if (value == null)
+        {
+            return;     // empty field
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++)
+        {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote)
+        {
+            out.append(value);
+            return;
+        }
+        out.appendAscii('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '"')
+            {
+                out.appendAscii('"');   // "" inside a quoted field
+            }
+            i = appendCharAt(value, i);
+        }
+        out.appendAscii('"');
+    }
+
+    private void jsonText(String value) throws IOException
+    {
+        if (value == null)
+        {
+            out.append("null");
+            return;
+        }
+        out.appendAscii('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    out.appendAscii('\\').appendAscii('"');
+                    break;
+                case '\\':
+                    out.appendAscii('\\').appendAscii('\\');
+                    break;
+                case '\n':
+                    out.appendAscii('\\').appendAscii('n');
+                    break;
+                case '\r':
+                    out.appendAscii('\\').appendAscii('r');
+                    break;
+                case '\t':
+                    out.appendAscii('\\').appendAscii('t');
+                    break;
+                default:
+                    if (c < 0x20)
+                    {
+                        out.append("\\u00").appendAscii(HEX[c >> 4]).appendAscii(HEX[c & 0xF]);
+                    }
+                    else
+                    {
+                        i = appendCharAt(value, i);
+                    }
+            }
+        }
+        out.appendAscii('"');
+    }
+
+    /**
+     * Appends the char at index i, keeping surrogate pairs together.
+     * Returns the index of the last char appended.
+     */
+    private int appendCharAt(String value, int i) throws IOException
+    {
+        char c = value.charAt(i);
+        if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(i + 1)))
+        {
+            out.append(value, i, i + 2);
+            return i + 1;
+        }
+        out.append(c);
+        return i;
+    }
+}
@@ -0,0 +1,193 @@
+package dkit.sd2.export;
+
+/*                                                        October 2026
+ * TextBuffer - builds UTF-8 text in a reusable ByteBuffer and writes it to
+ * a channel in large batches.
+ *
+ * Numbers are converted to digits and Strings to UTF-8 (see codec.Utf8)
+ * directly in the buffer, so appending creates no objects (no String
+ * concatenation and no String.getBytes()).
+ *
+ * Rows are never split between two writes: when the buffer fills up part
+ * way through a row, only the complete rows before it are written and the
+ * partial row is moved to the front of the buffer.  This means several
+ * TextBuffers can share one channel (see Exporter's parallel export)
+ * without their rows being mixed up.
+ */
+
+
+import dkit.sd2.codec.Utf8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+public class TextBuffer
+{
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+    private int rowStart;       // position in buffer where the current row began
+
+    public TextBuffer(WritableByteChannel channel)
+    {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public TextBuffer(WritableByteChannel channel, int bufferSize)
+    {
+        if (bufferSize < 64)
+        {
+            throw new IllegalArgumentException("bufferSize must be >= 64");
+        }
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Marks the end of a row; everything before this point may be written.
+     */
+    public void endRow()
+    {
+        rowStart = buffer.position();
+    }
+
+    public TextBuffer append(char c) throws IOException
+    {
+        ensure(Utf8.MAX_BYTES_PER_CHAR);
+        Utf8.putChar(buffer, c);
+        return this;
+    }
+
+    public TextBuffer appendAscii(char c) throws IOException
+    {
+        ensure(1);
+        buffer.put((byte) c);
+        return this;
+    }
+
+    public TextBuffer append(String s) throws IOException
+    {
+        return append(s, 0, s.length());
+    }
+
+    /**
+     * Appends the chars of s from index start up to (not including) end.
+     */
+    public TextBuffer append(String s, int start, int end) throws IOException
+    {
+        for (int i = start; i < end; )
+        {
+            ensure(Utf8.MAX_BYTES_PER_CHAR);
+            i = Utf8.put(buffer, s, i, end);
+        }
+        return this;
+    }
+
+    public TextBuffer append(long value) throws IOException
+    {
+        ensure(20);
+        if (value < 0)
+        {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE)
+            {
+                buffer.put((byte) '9');     // -9223372036854775808
+                value = -223372036854775808L;
+            }
+            value = -value;
+        }
+        int digits = digitCount(value);
+        int end = buffer.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--)
+        {
+            buffer.put(i, (byte) ('0' + (value % 10)));
+            value /= 10;
+        }
+        buffer.position(end);
+        return this;
+    }
+
+    public TextBuffer appendSpaces(int count) throws IOException
+    {
+        ensure(count);
+        for (int i = 0; i < count; i++)
+        {
+            buffer.put((byte) ' ');
+        }
+        return this;
+    }
+
+    /**
+     * Writes all complete rows (and any text after the last row) to the channel.
+     */
+    public void flush() throws IOException
+    {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+        rowStart = 0;
+    }
+
+    private void ensure(int bytes) throws IOException
+    {
+        if (buffer.remaining() >= bytes)
+        {
+            return;
+        }
+        if (rowStart > 0)
+        {
+            // write the complete rows, keep the partial row
+            ByteBuffer rows = buffer.duplicate();
+            rows.flip().limit(rowStart);
+            write(rows);
+            buffer.flip().position(rowStart);
+            buffer.compact();
+            rowStart = 0;
+        }
+        if (buffer.remaining() < bytes)
+        {
+            // a single row larger than the buffer
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private void write(ByteBuffer bytes) throws IOException
+    {
+        // one whole batch of rows per write, even if the channel is shared
+        synchronized (channel)
+        {
+            while (bytes.hasRemaining())
+            {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Number of chars append(long) writes for the value, including any '-'.
+     */
+    static int length(long value)
+    {
+        if (value == Long.MIN_VALUE)
+        {
+            return 20;      // -9223372036854775808 (cannot be negated)
+        }
+        return value < 0 ? digitCount(-value) + 1 : digitCount(value);
+    }
+
+    static int digitCount(long value)     // value >= 0
+    {
+        int digits = 1;
+        while (value >= 10)
+        {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,160 @@
+package dkit.sd2.hashing;
+
+/*                                                        October 2026
+ * Samples and benchmark for StrategyHashSet / StrategyHashMap.
+ *
+ * (1) Case-insensitive de-duplication of Books by title
+ *       wrapper : HashSet<String> of title.toLowerCase()  (a new String per Book)
+ *       strategy: StrategyHashSet with BOOK_BY_TITLE_IGNORE_CASE
+ *
+ * (2) Looking up a favourite Book when the caller only has a Student id
+ *       wrapper : HashMap<Integer, Book>, boxing the id on every get()
+ *       strategy: StrategyHashMap with STUDENT_BY_ID, creating a probe
+ *                 Student(id, null) on every get()
+ *     Both paths create one small object per lookup, inside the timed loop.
+ *     (A caller who already holds a Student object needs no probe.)
+ */
+
+
+import dkit.sd2.maps.Student;
+import dkit.sd2.sets.Book;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class HashingSamples
+{
+    static final int BOOKS = 2_000_000;
+    static final int DISTINCT_TITLES = 50_000;
+    static final int STUDENTS = 1_000_000;
+    static final int LOOKUPS = 10_000_000;
+
+    public static void main(String[] args)
+    {
+        demo();
+
+        List<Book> books = generateBooks(new Random(1));
+        Student[] students = new Student[STUDENTS];
+        for (int i = 0; i < STUDENTS; i++)
+        {
+            students[i] = new Student(100_000 + i, "Student " + i);
+        }
+        int[] probes = new int[LOOKUPS];    // ids to look up
+        Random random = new Random(2);
+        for (int i = 0; i < LOOKUPS; i++)
+        {
+            probes[i] = students[random.nextInt(STUDENTS)].getId();
+        }
+
+        for (int round = 0; round < 3; round++)     // first rounds warm up the JIT
+        {
+            System.out.println(round < 2 ? "Warm-up" : "Results");
+            dedupWithWrapper(books);
+            dedupWithStrategy(books);
+            lookupWithWrapper(students, probes);
+            lookupWithStrategy(students, probes);
+        }
+    }
+
+    static void demo()
+    {
+        Set<Book> byTitle = new StrategyHashSet<>(HashingStrategies.BOOK_BY_TITLE_IGNORE_CASE);
+        byTitle.add(new Book(9999, "Jaws"));
+        byTitle.add(new Book(1111, "JAWS"));    // same title ignoring case, not added
+        byTitle.add(new Book(2222, "Heist"));
+        System.out.println("Books de-duplicated by title (ignoring case): " + byTitle);
+
+        Map<Student, Book> favouriteBook = new StrategyHashMap<>(HashingStrategies.STUDENT_BY_ID);
+        favouriteBook.put(new Student(1001, "Tom Malone"), new Book(30004, "Lazy Days"));
+        System.out.println("Student 1001 loves: " + favouriteBook.get(new Student(1001, null)));
+
+        Set<Book> sorted = new TreeSet<>(HashingStrategies.BOOK_TITLE_IGNORE_CASE_ORDER);
+        sorted.add(new Book(9999, "jaws"));
+        sorted.add(new Book(4444, "Alien"));
+        sorted.add(new Book(1111, "JAWS"));     // same title ignoring case, not added
+        System.out.println("TreeSet sorted by title (ignoring case): " + sorted + "\n");
+    }
+
+    static List<Book> generateBooks(Random random)
+    {
+        List<Book> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++)
+        {
+            String title = "The Book Of Number " + random.nextInt(DISTINCT_TITLES);
+            title = random.nextBoolean() ? title.toUpperCase() : title;
+            books.add(new Book(i, title));
+        }
+        return books;
+    }
+
+    static void dedupWithWrapper(List<Book> books)
+    {
+        long start = System.nanoTime();
+        Set<String> seen = new HashSet<>();
+        List<Book> unique = new ArrayList<>();
+        for (Book book : books)
+        {
+            if (seen.add(book.getTitle().toLowerCase()))
+            {
+                unique.add(book);
+            }
+        }
+        report("dedup  wrapper ", books.size(), System.nanoTime() - start, unique.size());
+    }
+
+    static void dedupWithStrategy(List<Book> books)
+    {
+        long start = System.nanoTime();
+        Set<Book> unique = new StrategyHashSet<>(HashingStrategies.BOOK_BY_TITLE_IGNORE_CASE);
+        for (Book book : books)
+        {
+            unique.add(book);
+        }
+        report("dedup  strategy", books.size(), System.nanoTime() - start, unique.size());
+    }
+
+    static void lookupWithWrapper(Student[] students, int[] probes)
+    {
+        Map<Integer, Book> favouriteBook = new HashMap<>();
+        for (Student student : students)
+        {
+            favouriteBook.put(student.getId(), new Book(student.getId(), "Lazy Days"));
+        }
+
+        long start = System.nanoTime();
+        long sum = 0;
+        for (int id : probes)
+        {
+            sum += favouriteBook.get(id).getCode();     // boxes the id
+        }
+        report("lookup wrapper ", probes.length, System.nanoTime() - start, sum);
+    }
+
+    static void lookupWithStrategy(Student[] students, int[] probes)
+    {
+        Map<Student, Book> favouriteBook = new StrategyHashMap<>(HashingStrategies.STUDENT_BY_ID);
+        for (Student student : students)
+        {
+            favouriteBook.put(student, new Book(student.getId(), "Lazy Days"));
+        }
+
+        long start = System.nanoTime();
+        long sum = 0;
+        for (int id : probes)
+        {
+            sum += favouriteBook.get(new Student(id, null)).getCode();  // probe key
+        }
+        report("lookup strategy", probes.length, System.nanoTime() - start, sum);
+    }
+
+    static void report(String name, int operations, long nanos, long check)
+    {
+        System.out.printf("%s: %,14.0f ops/s   (check %d)%n", name, operations / (nanos / 1e9), check);
+    }
+}
@@ -0,0 +1,145 @@
+package dkit.sd2.hashing;
+
+/*                                                        October 2026
+ * Stock HashingStrategies and matching Comparators for Book and Student.
+ *
+ * Use the strategies with StrategyHashSet / StrategyHashMap, and the
+ * Comparators with TreeSet / TreeMap, which already accept a Comparator
+ * in their constructor.
+ *
+ * None of these create objects (e.g. lower-case copies of titles) when
+ * they are called.
+ */
+
+
+import dkit.sd2.maps.Student;
+import dkit.sd2.sets.Book;
+
+import java.util.Comparator;
+
+public class HashingStrategies
+{
+    public static final HashingStrategy<Book> BOOK_BY_CODE = new HashingStrategy<Book>()
+    {
+        @Override
+        public int hashCode(Book book)
+        {
+            return book.getCode();
+        }
+
+        @Override
+        public boolean equals(Book book1, Book book2)
+        {
+            return book1.getCode() == book2.getCode();
+        }
+    };
+
+    public static final HashingStrategy<Book> BOOK_BY_TITLE_IGNORE_CASE = new HashingStrategy<Book>()
+    {
+        @Override
+        public int hashCode(Book book)
+        {
+            return hashCodeIgnoreCase(book.getTitle());
+        }
+
+        @Override
+        public boolean equals(Book book1, Book book2)
+        {
+            return equalsIgnoreCase(book1.getTitle(), book2.getTitle());
+        }
+    };
+
+    public static final HashingStrategy<Student> STUDENT_BY_ID = new HashingStrategy<Student>()
+    {
+        @Override
+        public int hashCode(Student student)
+        {
+            return student.getId();
+        }
+
+        @Override
+        public boolean equals(Student student1, Student student2)
+        {
+            return student1.getId() == student2.getId();
+        }
+    };
+
+    public static final Comparator<Book> BOOK_CODE_ORDER =
+            (book1, book2) -> Integer.compare(book1.getCode(), book2.getCode());
+
+    public static final Comparator<Book> BOOK_TITLE_IGNORE_CASE_ORDER =
+            (book1, book2) -> String.CASE_INSENSITIVE_ORDER.compare(book1.getTitle(), book2.getTitle());
+
+    public static final Comparator<Student> STUDENT_ID_ORDER =
+            (student1, student2) -> Integer.compare(student1.getId(), student2.getId());
+
+    /**
+     * Same result as String.equalsIgnoreCase(), but with a quick path for
+     * plain ASCII characters, which are by far the most common in titles.
+     */
+    public static boolean equalsIgnoreCase(String s1, String s2)
+    {
+        if (s1 == s2)
+        {
+            return true;
+        }
+        if (s1 == null || s2 == null || s1.length() != s2.length())
+        {
+            return false;
+        }
+        for (int i = 0; i < s1.length(); i++)
+        {
+            char c1 = s1.charAt(i);
+            char c2 = s2.charAt(i);
+            if (c1 == c2)
+            {
+                continue;
+            }
+            if (c1 < 0x80 && c2 < 0x80)
+            {
+                if ((c1 | 0x20) != (c2 | 0x20) || (c1 | 0x20) < 'a' || (c1 | 0x20) > 'z')
+                {
+                    return false;   // only letters differ by case
+                }
+            }
+            else if (Character.toUpperCase(c1) != Character.toUpperCase(c2)
+                    && Character.toLowerCase(Character.toUpperCase(c1))
+                    != Character.toLowerCase(Character.toUpperCase(c2)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash code that is the same for Strings that are equalsIgnoreCase().
+     * Each char is folded the same way equalsIgnoreCase() folds it,
+     * rather than calling toLowerCase() on the whole String.
+     */
+    public static int hashCodeIgnoreCase(String s)
+    {
+        if (s == null)
+        {
+            return 0;
+        }
+        int hash = 0;
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            if (c < 0x80)
+            {
+                if (c >= 'A' && c <= 'Z')
+                {
+                    c += 'a' - 'A';     // quick path for plain ASCII letters
+                }
+            }
+            else
+            {
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            hash = 31 * hash + c;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,20 @@
+package dkit.sd2.hashing;
+
+/*                                                        October 2026
+ * A HashingStrategy supplies hashCode() and equals() from outside the
+ * element class, in the same way that a Comparator supplies compareTo()
+ * from outside the class for a TreeSet.
+ *
+ * This lets one class be stored in a hash table under different rules
+ * (e.g. Books compared by code only, or by title ignoring case) without
+ * writing a new class or wrapping every key.
+ *
+ * As with hashCode() and equals(): if equals(a, b) is true then
+ * hashCode(a) must equal hashCode(b).
+ */
+public interface HashingStrategy<T>
+{
+    int hashCode(T object);
+
+    boolean equals(T object1, T object2);
+}
@@ -0,0 +1,559 @@
+package dkit.sd2.hashing;
+
+/*                                                        October 2026
+ * A hash Map that uses a HashingStrategy, instead of the key's own
+ * hashCode() and equals(), to decide whether two keys are the same.
+ *
+ * e.g. new StrategyHashMap<>(HashingStrategies.STUDENT_BY_ID) treats two
+ * Student objects with the same id as the same key, even if their names
+ * differ, without creating an Integer (or other wrapper) key per lookup.
+ *
+ * Keys, values and the keys' hash codes are stored in parallel arrays
+ * (open addressing with linear probing), so get() and containsKey() create
+ * no objects at all.  The stored hash code is checked before the strategy's
+ * equals() is called, as HashMap does.
+ * Removed slots are marked with a DELETED marker, which is cleared out the
+ * next time the table is rebuilt.
+ *
+ * Null keys are not allowed.
+ *
+ * NOTE: like IdentityHashMap, this class breaks the general Map contract on
+ * purpose, because keys are compared with the strategy rather than with
+ * equals().  hashCode() of the map and of its entries also uses the
+ * strategy, so two StrategyHashMaps with the same strategy that are
+ * equal() also have the same hashCode().  Comparing a StrategyHashMap
+ * with an ordinary Map (e.g. a HashMap) may not give a symmetric result.
+ * keySet() and entrySet() also find keys with the strategy.
+ */
+
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+public class StrategyHashMap<K, V> extends AbstractMap<K, V>
+{
+    private static final Object DELETED = new Object();
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private final HashingStrategy<? super K> strategy;
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int size;
+    private int used;           // slots that are full or DELETED
+    private int modCount;
+
+    public StrategyHashMap(HashingStrategy<? super K> strategy)
+    {
+        this(strategy, DEFAULT_CAPACITY / 2);
+    }
+
+    /**
+     * @param expectedSize number of entries that can be added before the table grows
+     */
+    public StrategyHashMap(HashingStrategy<? super K> strategy, int expectedSize)
+    {
+        this.strategy = Objects.requireNonNull(strategy);
+        int capacity = tableSizeFor(expectedSize);
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.hashes = new int[capacity];
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key)
+    {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value)
+    {
+        Objects.requireNonNull(key, "key");
+        int mask = keys.length - 1;
+        int hash = spread(strategy.hashCode(key));
+        int index = hash & mask;
+        int firstDeleted = -1;
+
+        Object current;
+        while ((current = keys[index]) != null)
+        {
+            if (current == DELETED)
+            {
+                if (firstDeleted < 0)
+                {
+                    firstDeleted = index;
+                }
+            }
+            else if (hashes[index] == hash && strategy.equals(key, (K) current))
+            {
+                V old = (V) values[index];
+                values[index] = value;
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (firstDeleted >= 0)
+        {
+            index = firstDeleted;   // re-use a removed slot
+        }
+        else
+        {
+            used++;
+        }
+        keys[index] = key;
+        values[index] = value;
+        hashes[index] = hash;
+        size++;
+        modCount++;
+
+        if (used * 2 > keys.length)     // keep the table at most half full
+        {
+            if (size * 4 <= keys.length)
+            {
+                rebuild(keys.length);       // mostly DELETED slots: clear them out
+            }
+            else if (keys.length < MAXIMUM_CAPACITY)
+            {
+                rebuild(keys.length * 2);
+            }
+            else if (used == keys.length - 1)
+            {
+                // at least one empty slot is needed to end a search
+                throw new IllegalStateException("StrategyHashMap is full");
+            }
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key)
+    {
+        int index = indexOf(key);
+        if (index < 0)
+        {
+            return null;
+        }
+        V old = (V) values[index];
+        removeAt(index);
+        return old;
+    }
+
+    @Override
+    public void clear()
+    {
+        for (int i = 0; i < keys.length; i++)
+        {
+            keys[i] = null;
+            values[i] = null;
+        }
+        size = 0;
+        used = 0;
+        modCount++;
+    }
+
+    /**
+     * The key set looks keys up with the strategy, so keySet().remove(key)
+     * removes the same entry as remove(key) does.
+     */
+    @Override
+    public Set<K> keySet()
+    {
+        return new AbstractSet<K>()
+        {
+            @Override
+            public Iterator<K> iterator()
+            {
+                return new KeyIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object key)
+            {
+                return containsKey(key);
+            }
+
+            @Override
+            public boolean remove(Object key)
+            {
+                int index = indexOf(key);
+                if (index < 0)
+                {
+                    return false;
+                }
+                removeAt(index);
+                return true;
+            }
+
+            @Override
+            public int hashCode()
+            {
+                return keysHashCode();
+            }
+
+            @Override
+            public void clear()
+            {
+                StrategyHashMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * As in IdentityHashMap, contains() and remove() find the entry's key
+     * with the strategy and then compare the values with equals().
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<K, V>>()
+        {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator()
+            {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object obj)
+            {
+                return indexOfEntry(obj) >= 0;
+            }
+
+            @Override
+            public boolean remove(Object obj)
+            {
+                int index = indexOfEntry(obj);
+                if (index < 0)
+                {
+                    return false;
+                }
+                removeAt(index);
+                return true;
+            }
+
+            @Override
+            public void clear()
+            {
+                StrategyHashMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Sum of the strategy's hash codes of all the keys, which is the
+     * hashCode() of a Set of those keys under the strategy.
+     */
+    @SuppressWarnings("unchecked")
+    int keysHashCode()
+    {
+        int hash = 0;
+        for (Object key : keys)
+        {
+            if (key != null && key != DELETED)
+            {
+                hash += strategy.hashCode((K) key);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the slot holding an entry with the same key (under the
+     * strategy) and an equal value, or -1 if there is no such entry.
+     */
+    private int indexOfEntry(Object obj)
+    {
+        if (!(obj instanceof Map.Entry))
+        {
+            return -1;
+        }
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+        int index = indexOf(entry.getKey());
+        return index >= 0 && Objects.equals(values[index], entry.getValue()) ? index : -1;
+    }
+
+    /**
+     * Returns the slot holding the key, or -1 if the key is not present.
+     */
+    @SuppressWarnings("unchecked")
+    private int indexOf(Object key)
+    {
+        if (key == null)
+        {
+            return -1;
+        }
+        // A key of the wrong type will fail with a ClassCastException in
+        // the strategy, as it would in a TreeMap with a Comparator.
+        K k = (K) key;
+        int mask = keys.length - 1;
+        int hash = spread(strategy.hashCode(k));
+        int index = hash & mask;
+
+        Object current;
+        while ((current = keys[index]) != null)
+        {
+            if (hashes[index] == hash && current != DELETED && strategy.equals(k, (K) current))
+            {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void removeAt(int index)
+    {
+        keys[index] = DELETED;
+        values[index] = null;
+        size--;
+        modCount++;
+    }
+
+    private void rebuild(int capacity)
+    {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        int mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            Object key = oldKeys[i];
+            if (key != null && key != DELETED)
+            {
+                int index = oldHashes[i] & mask;
+                while (keys[index] != null)
+                {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+        used = size;
+    }
+
+    /**
+     * Mixes the bits of the hash code, so that strategies returning
+     * consecutive numbers (e.g. ids) do not form long runs of full slots.
+     */
+    private static int spread(int hash)
+    {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize)
+    {
+        if (expectedSize < 0)
+        {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        if (expectedSize > MAXIMUM_CAPACITY / 2)
+        {
+            return MAXIMUM_CAPACITY;
+        }
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2)
+        {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private abstract class HashIterator<T> implements Iterator<T>
+    {
+        private int next = -1;
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        HashIterator()
+        {
+            advance();
+        }
+
+        private void advance()
+        {
+            do
+            {
+                next++;
+            }
+            while (next < keys.length && (keys[next] == null || keys[next] == DELETED));
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next < keys.length;
+        }
+
+        /**
+         * Returns the slot of the next entry.
+         */
+        int nextIndex()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return last;
+        }
+
+        @Override
+        public void remove()
+        {
+            if (last < 0)
+            {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);     // only marks the slot, so iteration order is unchanged
+            last = -1;
+            expectedModCount = modCount;
+        }
+    }
+
+    private class KeyIterator extends HashIterator<K>
+    {
+        @Override
+        @SuppressWarnings("unchecked")
+        public K next()
+        {
+            return (K) keys[nextIndex()];
+        }
+    }
+
+    private class EntryIterator extends HashIterator<Map.Entry<K, V>>
+    {
+        @Override
+        public Map.Entry<K, V> next()
+        {
+            return new Entry(nextIndex());
+        }
+    }
+
+    private class Entry implements Map.Entry<K, V>
+    {
+        private final int index;
+        private final K key;
+
+        @SuppressWarnings("unchecked")
+        Entry(int index)
+        {
+            this.index = index;
+            this.key = (K) keys[index];
+        }
+
+        @Override
+        public K getKey()
+        {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue()
+        {
+            return (V) values[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value)
+        {
+            V old = (V) values[index];
+            values[index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return sameKey(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean sameKey(Object otherKey)
+        {
+            if (otherKey == null)
+            {
+                return false;
+            }
+            try
+            {
+                return strategy.equals(key, (K) otherKey);
+            }
+            catch (ClassCastException e)
+            {
+                return false;   // a key of another type is never equal
+            }
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return strategy.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString()
+        {
+            return key + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dkit.sd2.hashing;
+
+/*                                                        October 2026
+ * A hash Set that uses a HashingStrategy, instead of the element's own
+ * hashCode() and equals(), to decide whether two elements are duplicates.
+ *
+ * e.g. new StrategyHashSet<>(HashingStrategies.BOOK_BY_TITLE_IGNORE_CASE)
+ * will not add a Book titled "JAWS" if a Book titled "Jaws" is already in
+ * the set - and no lower-case copy of either title is made.
+ *
+ * Backed by a StrategyHashMap (as HashSet is backed by a HashMap).
+ * Null elements are not allowed.
+ *
+ * NOTE: like the Set returned by IdentityHashMap.keySet(), this class breaks
+ * the general Set contract on purpose, because elements are compared with
+ * the strategy rather than with equals().  hashCode() also uses the
+ * strategy, so two StrategyHashSets with the same strategy that are
+ * equal() also have the same hashCode().  Comparing a StrategyHashSet with
+ * an ordinary Set (e.g. a HashSet) may not give a symmetric result.
+ */
+
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+
+public class StrategyHashSet<E> extends AbstractSet<E>
+{
+    private static final Object PRESENT = new Object();
+
+    private final StrategyHashMap<E, Object> map;
+
+    public StrategyHashSet(HashingStrategy<? super E> strategy)
+    {
+        map = new StrategyHashMap<>(strategy);
+    }
+
+    public StrategyHashSet(HashingStrategy<? super E> strategy, int expectedSize)
+    {
+        map = new StrategyHashMap<>(strategy, expectedSize);
+    }
+
+    public StrategyHashSet(HashingStrategy<? super E> strategy, Collection<? extends E> elements)
+    {
+        this(strategy, elements.size());
+        addAll(elements);
+    }
+
+    @Override
+    public boolean add(E element)
+    {
+        return map.put(element, PRESENT) == null;
+    }
+
+    @Override
+    public boolean contains(Object element)
+    {
+        return map.containsKey(element);
+    }
+
+    @Override
+    public boolean remove(Object element)
+    {
+        return map.remove(element) != null;
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        return map.keySet().iterator();
+    }
+
+    @Override
+    public int size()
+    {
+        return map.size();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return map.keysHashCode();
+    }
+
+    @Override
+    public void clear()
+    {
+        map.clear();
+    }
+}
@@ -0,0 +1,155 @@
+package dkit.sd2.maps;
+
+
+/**
+ * Load generator for LookupService                     Added: October 2026
+ *
+ * Each "request" asks for REQUEST_SIZE random book keys.
+ *
+ *  baseline - every key is a separate get() task on a pool of platform
+ *             threads (one get per thread, as callers do today)
+ *  batched  - the whole request is one getAll() call via LookupService
+ *
+ * Both allow at most CONCURRENCY requests in progress, using a Semaphore,
+ * and time a request from just before it waits for admission until its
+ * last lookup completes, so time spent queueing is counted in both.
+ *
+ * The report shows throughput (keys looked up per second) and the
+ * latency of a request at the 50th, 99th and 99.9th percentiles.
+ */
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+public class LookupSamples
+{
+    static final int BOOKS = 1_000_000;
+    static final int REQUESTS = 20_000;
+    static final int REQUEST_SIZE = 64;
+    static final int CONCURRENCY = 16;
+
+    public static void main(String[] args) throws Exception
+    {
+        Map<Long, Book> treeMap = new TreeMap<>();
+        Map<Long, Book> hashMap = new HashMap<>();
+        for (int i = 0; i < BOOKS; i++)
+        {
+            Book book = new Book(i, "Title " + i);
+            treeMap.put((long) i, book);
+            hashMap.put((long) i, book);
+        }
+
+        List<List<Long>> requests = generateRequests(new Random(42));
+
+        for (int round = 0; round < 2; round++)     // first round warms up the JIT
+        {
+            System.out.println(round == 0 ? "Warm-up" : "Results");
+            report("TreeMap baseline", baseline(treeMap, requests));
+            report("TreeMap batched ", batched(treeMap, requests));
+            report("HashMap baseline", baseline(hashMap, requests));
+            report("HashMap batched ", batched(hashMap, requests));
+        }
+    }
+
+    static List<List<Long>> generateRequests(Random random)
+    {
+        List<List<Long>> requests = new ArrayList<>(REQUESTS);
+        for (int r = 0; r < REQUESTS; r++)
+        {
+            List<Long> keys = new ArrayList<>(REQUEST_SIZE);
+            for (int k = 0; k < REQUEST_SIZE; k++)
+            {
+                keys.add((long) random.nextInt(BOOKS));
+            }
+            requests.add(keys);
+        }
+        return requests;
+    }
+
+    /**
+     * One get() per task on platform threads. Returns per-request latencies
+     * in nanoseconds, with the total elapsed time stored in the last slot.
+     */
+    static long[] baseline(Map<Long, Book> bookMap, List<List<Long>> requests) throws Exception
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        Semaphore permits = new Semaphore(CONCURRENCY);    // same admission control as LookupService
+        long[] latencies = new long[requests.size() + 1];
+        List<CompletableFuture<?>> all = new ArrayList<>(requests.size());
+
+        long start = System.nanoTime();
+        for (int r = 0; r < requests.size(); r++)
+        {
+            final int index = r;
+            final long submitted = System.nanoTime();  // before admission, as in batched()
+            permits.acquire();
+            List<Long> keys = requests.get(r);
+            CompletableFuture<?>[] gets = new CompletableFuture<?>[keys.size()];
+            for (int k = 0; k < keys.size(); k++)
+            {
+                Long key = keys.get(k);
+                gets[k] = CompletableFuture.supplyAsync(() -> bookMap.get(key), pool);
+            }
+            all.add(CompletableFuture.allOf(gets).thenRun(() ->
+            {
+                permits.release();
+                latencies[index] = System.nanoTime() - submitted;
+            }));
+        }
+        CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).join();
+        latencies[requests.size()] = System.nanoTime() - start;
+
+        pool.shutdown();
+        return latencies;
+    }
+
+    static long[] batched(Map<Long, Book> bookMap, List<List<Long>> requests) throws Exception
+    {
+        long[] latencies = new long[requests.size() + 1];
+        List<CompletableFuture<?>> all = new ArrayList<>(requests.size());
+
+        try (LookupService<Long, Book> service = new LookupService<>(bookMap, CONCURRENCY))
+        {
+            long start = System.nanoTime();
+            for (int r = 0; r < requests.size(); r++)
+            {
+                final int index = r;
+                final long submitted = System.nanoTime();  // before submit(), which may block
+                all.add(service.submit(requests.get(r))
+                        .thenRun(() -> latencies[index] = System.nanoTime() - submitted));
+            }
+            CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0])).join();
+            latencies[requests.size()] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    static void report(String name, long[] latencies)
+    {
+        int requests = latencies.length - 1;
+        long elapsed = latencies[requests];
+        long[] sorted = Arrays.copyOf(latencies, requests);
+        Arrays.sort(sorted);
+
+        double keysPerSecond = (double) requests * REQUEST_SIZE / (elapsed / 1e9);
+        System.out.printf("%s: %,12.0f keys/s   p50 %8.1f us   p99 %8.1f us   p99.9 %8.1f us%n",
+                name, keysPerSecond,
+                percentile(sorted, 0.50) / 1e3,
+                percentile(sorted, 0.99) / 1e3,
+                percentile(sorted, 0.999) / 1e3);
+    }
+
+    static long percentile(long[] sorted, double p)
+    {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,165 @@
+package dkit.sd2.maps;
+
+
+/**
+ * LookupService - answers batches of Map lookups.      Added: October 2026
+ *
+ * Rather than calling get() once per key (as in map3() and map7()), a caller
+ * passes a whole Collection of keys to getAll() and receives a Map of the
+ * keys that were found and their values.
+ *
+ * If the wrapped Map is a SortedMap (e.g. TreeMap) the keys are sorted
+ * (using the Map's own Comparator, or natural ordering) and duplicates are
+ * dropped before the lookups are done.  Consecutive get() calls then walk
+ * neighbouring paths of the binary tree, in order.
+ * For a HashMap there is no ordering to take advantage of, so the keys are
+ * looked up in the order given (a repeated key is simply looked up again).
+ *
+ * submit() runs a batch on a background thread.  At most 'maxConcurrent'
+ * batches are in progress at any time; when that limit is reached, submit()
+ * blocks until a running batch finishes (this is called "backpressure").
+ * Virtual threads are used when the JVM supports them (Java 21+),
+ * otherwise a fixed pool of 'maxConcurrent' platform threads is used.
+ *
+ * The wrapped Map is only read, never modified, by this class.
+ */
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+public class LookupService<K, V> implements AutoCloseable
+{
+    private final Map<K, V> map;
+    private final boolean sorted;
+    private final Comparator<? super K> comparator;   // null means natural ordering
+    private final ExecutorService executor;
+    private final Semaphore permits;
+
+    public LookupService(Map<K, V> map, int maxConcurrent)
+    {
+        if (maxConcurrent < 1)
+        {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        this.map = map;
+        this.sorted = map instanceof SortedMap;
+        this.comparator = sorted ? ((SortedMap<K, V>) map).comparator() : null;
+        this.executor = newExecutor(maxConcurrent);
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public V get(K key)
+    {
+        return map.get(key);
+    }
+
+    /**
+     * Looks up every key in the collection.
+     * Keys that are not in the Map are left out of the result.
+     * For a SortedMap the result is in key order.
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys)
+    {
+        if (!sorted)
+        {
+            Map<K, V> result = new HashMap<>(capacityFor(keys.size()));
+            for (K key : keys)
+            {
+                V value = map.get(key);
+                if (value != null)
+                {
+                    result.put(key, value);
+                }
+            }
+            return result;
+        }
+
+        List<K> sortedKeys = new ArrayList<>(keys);
+        sortedKeys.sort(comparator);        // null comparator => natural ordering
+
+        Map<K, V> result = new LinkedHashMap<>(capacityFor(sortedKeys.size()));
+        K previous = null;
+        for (K key : sortedKeys)
+        {
+            if (previous != null && compare(previous, key) == 0)
+            {
+                continue;   // duplicate key, already looked up
+            }
+            previous = key;
+
+            V value = map.get(key);
+            if (value != null)
+            {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs getAll() on a background thread.
+     * Blocks while 'maxConcurrent' batches are already in progress.
+     */
+    public CompletableFuture<Map<K, V>> submit(Collection<? extends K> keys) throws InterruptedException
+    {
+        permits.acquire();
+        try
+        {
+            CompletableFuture<Map<K, V>> future = CompletableFuture.supplyAsync(() -> getAll(keys), executor);
+            future.whenComplete((result, error) -> permits.release());
+            return future;
+        }
+        catch (RejectedExecutionException e)
+        {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdown();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(K key1, K key2)
+    {
+        if (comparator != null)
+        {
+            return comparator.compare(key1, key2);
+        }
+        return ((Comparable<? super K>) key1).compareTo(key2);
+    }
+
+    private static int capacityFor(int size)
+    {
+        return (int) (size / 0.75f) + 1;    // avoids rehashing (default load factor 0.75)
+    }
+
+    private static ExecutorService newExecutor(int threads)
+    {
+        // This project is compiled for Java 11, so the Java 21 factory
+        // method for virtual threads is looked up by name at runtime.
+        try
+        {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return Executors.newFixedThreadPool(threads);
+        }
+    }
+}
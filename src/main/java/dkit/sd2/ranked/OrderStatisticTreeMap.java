@@ -0,0 +1,1159 @@
+package dkit.sd2.ranked;
+
+/*                                                        October 2026
+ * OrderStatisticTreeMap - a sorted Map (like TreeMap) that can also answer
+ * questions about POSITIONS in the sorted order in O(log n):
+ *
+ *   rank(key)                  how many keys come before this key
+ *   select(i)                  the entry at position i (0 = first)
+ *   countInRange(lo, hi)       how many keys are in [lo, hi)
+ *   page(offset, limit)        'limit' entries starting at position 'offset'
+ *
+ * With a TreeMap each of these needs a walk through the entries, O(n).
+ *
+ * How it works: every node of the binary tree also stores the SIZE of its
+ * subtree (the node plus everything below it).  To find entry i, compare i
+ * with the size of the left subtree and go left or right - one path from
+ * the root, just like a get().
+ *
+ * The tree is kept balanced using the subtree sizes themselves
+ * ("weight-balanced tree"): neither side of a node may hold more than
+ * DELTA times as many entries as the other.
+ *
+ * Views returned by subMap(), headMap(), tailMap() and descendingMap() are
+ * backed by the same tree.  Their bounds are turned into positions when
+ * needed, so a view's size() - and rank(), select() and page() inside the
+ * view - are also O(log n).
+ *
+ * Null keys are not allowed.  Like TreeMap, this class is not thread-safe.
+ */
+
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.function.Function;
+
+public class OrderStatisticTreeMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V>
+{
+    private final Tree<K, V> tree;
+
+    // Bounds of this view, in the tree's (ascending) order.
+    // The whole map is a view with no bounds (fromStart and toEnd both true).
+    private final boolean fromStart;
+    private final K lo;
+    private final boolean loInclusive;
+    private final boolean toEnd;
+    private final K hi;
+    private final boolean hiInclusive;
+    private final boolean descending;
+
+    public OrderStatisticTreeMap()
+    {
+        this((Comparator<? super K>) null);
+    }
+
+    public OrderStatisticTreeMap(Comparator<? super K> comparator)
+    {
+        this(new Tree<>(comparator), true, null, false, true, null, false, false);
+    }
+
+    public OrderStatisticTreeMap(Map<? extends K, ? extends V> map)
+    {
+        this();
+        putAll(map);
+    }
+
+    /**
+     * Copies a sorted map (e.g. a TreeMap), using the same ordering.
+     * As the entries are already in order, the tree is built in O(n).
+     */
+    public OrderStatisticTreeMap(SortedMap<K, ? extends V> map)
+    {
+        this(map.comparator());
+        tree.build(map.keySet().iterator(), map.values().iterator(), map.size(), null);
+    }
+
+    /**
+     * Builds a map from a sorted set of keys, all with the same value.
+     * Used by OrderStatisticTreeSet.
+     */
+    OrderStatisticTreeMap(SortedSet<K> keys, V value)
+    {
+        this(keys.comparator());
+        tree.build(keys.iterator(), null, keys.size(), value);
+    }
+
+    private OrderStatisticTreeMap(Tree<K, V> tree, boolean fromStart, K lo, boolean loInclusive,
+                                  boolean toEnd, K hi, boolean hiInclusive, boolean descending)
+    {
+        this.tree = tree;
+        this.fromStart = fromStart;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.toEnd = toEnd;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    // ------------------------------------------------- order statistics
+
+    /**
+     * Returns the number of keys in this map that come before the given key
+     * (which does not need to be in the map).  If the key is in the map,
+     * this is its position, so select(rank(key)) finds it again.
+     */
+    public int rank(Object key)
+    {
+        int from = from();
+        int to = to(from);
+        if (!descending)
+        {
+            return clamp(tree.rankOf(key, false), from, to) - from;
+        }
+        return to - clamp(tree.rankOf(key, true), from, to);
+    }
+
+    /**
+     * Returns the entry at position 'index' (0 is the first entry).
+     *
+     * @throws IndexOutOfBoundsException if index is not in 0..size()-1
+     */
+    public Map.Entry<K, V> select(int index)
+    {
+        int from = from();
+        int to = to(from);
+        if (index < 0 || index >= to - from)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+        }
+        return exportEntry(descending ? to - 1 - index : from + index);
+    }
+
+    /**
+     * Returns the number of keys from fromKey (inclusive) to toKey (exclusive),
+     * the same range as subMap(fromKey, toKey).
+     */
+    public int countInRange(K fromKey, K toKey)
+    {
+        return countInRange(fromKey, true, toKey, false);
+    }
+
+    public int countInRange(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive)
+    {
+        return subMap(fromKey, fromInclusive, toKey, toInclusive).size();
+    }
+
+    /**
+     * Returns up to 'limit' entries, starting at position 'offset'.
+     * Finding the first entry is O(log n), however large the offset.
+     * Use on a view to page through a range, e.g.
+     *      map.subMap(fromKey, toKey).page(1000, 20)
+     */
+    public List<Map.Entry<K, V>> page(int offset, int limit)
+    {
+        if (offset < 0 || limit < 0)
+        {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+        List<Map.Entry<K, V>> page = new ArrayList<>(Math.min(limit, Math.max(0, size() - offset)));
+        Iterator<Map.Entry<K, V>> entries = iterator(offset, AbstractMap.SimpleImmutableEntry::new);
+        while (page.size() < limit && entries.hasNext())
+        {
+            page.add(entries.next());
+        }
+        return page;
+    }
+
+    // ---------------------------------------------------------------- Map
+
+    @Override
+    public int size()
+    {
+        int from = from();
+        return to(from) - from;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return inRange(key) && tree.getNode(key) != null;
+    }
+
+    @Override
+    public V get(Object key)
+    {
+        if (!inRange(key))
+        {
+            return null;
+        }
+        Node<K, V> node = tree.getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public V put(K key, V value)
+    {
+        if (!inRange(key))
+        {
+            throw new IllegalArgumentException("key out of range");
+        }
+        return tree.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        if (!inRange(key))
+        {
+            return null;
+        }
+        Node<K, V> node = tree.removeNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public void clear()
+    {
+        if (fromStart && toEnd)
+        {
+            tree.clear();
+        }
+        else
+        {
+            // Remove this view's entries one by one with its own iterator.
+            // (AbstractMap.clear() would call back here through entrySet().clear())
+            for (Iterator<Node<K, V>> nodes = iterator(0, node -> node); nodes.hasNext(); )
+            {
+                nodes.next();
+                nodes.remove();
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<K, V>>()
+        {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator()
+            {
+                return OrderStatisticTreeMap.this.iterator(0, node -> node);
+            }
+
+            @Override
+            public int size()
+            {
+                return OrderStatisticTreeMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o)
+            {
+                if (!(o instanceof Map.Entry))
+                {
+                    return false;
+                }
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                Object key = entry.getKey();
+                if (key == null || !inRange(key))
+                {
+                    return false;
+                }
+                Node<K, V> node = tree.getNode(key);
+                return node != null && Objects.equals(node.value, entry.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o)
+            {
+                if (!contains(o))
+                {
+                    return false;
+                }
+                tree.removeNode(((Map.Entry<?, ?>) o).getKey());
+                return true;
+            }
+
+            @Override
+            public void clear()
+            {
+                OrderStatisticTreeMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public OrderStatisticTreeSet<K> keySet()
+    {
+        return navigableKeySet();
+    }
+
+    // ------------------------------------------------------- NavigableMap
+
+    @Override
+    public Comparator<? super K> comparator()
+    {
+        return descending ? Collections.reverseOrder(tree.comparator) : tree.comparator;
+    }
+
+    @Override
+    public K firstKey()
+    {
+        return keyOrThrow(firstIndex());
+    }
+
+    @Override
+    public K lastKey()
+    {
+        return keyOrThrow(lastIndex());
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry()
+    {
+        return exportEntry(firstIndex());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry()
+    {
+        return exportEntry(lastIndex());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry()
+    {
+        return pollEntry(firstIndex());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry()
+    {
+        return pollEntry(lastIndex());
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key)
+    {
+        return exportEntry(descending ? ceilingIndex(key, false) : floorIndex(key, false));
+    }
+
+    @Override
+    public K lowerKey(K key)
+    {
+        return keyOrNull(descending ? ceilingIndex(key, false) : floorIndex(key, false));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key)
+    {
+        return exportEntry(descending ? ceilingIndex(key, true) : floorIndex(key, true));
+    }
+
+    @Override
+    public K floorKey(K key)
+    {
+        return keyOrNull(descending ? ceilingIndex(key, true) : floorIndex(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key)
+    {
+        return exportEntry(descending ? floorIndex(key, true) : ceilingIndex(key, true));
+    }
+
+    @Override
+    public K ceilingKey(K key)
+    {
+        return keyOrNull(descending ? floorIndex(key, true) : ceilingIndex(key, true));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key)
+    {
+        return exportEntry(descending ? floorIndex(key, false) : ceilingIndex(key, false));
+    }
+
+    @Override
+    public K higherKey(K key)
+    {
+        return keyOrNull(descending ? floorIndex(key, false) : ceilingIndex(key, false));
+    }
+
+    @Override
+    public OrderStatisticTreeMap<K, V> descendingMap()
+    {
+        return new OrderStatisticTreeMap<>(tree, fromStart, lo, loInclusive,
+                toEnd, hi, hiInclusive, !descending);
+    }
+
+    @Override
+    public OrderStatisticTreeSet<K> navigableKeySet()
+    {
+        return new OrderStatisticTreeSet<>(this, true);
+    }
+
+    @Override
+    public OrderStatisticTreeSet<K> descendingKeySet()
+    {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public OrderStatisticTreeMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive)
+    {
+        int order = tree.compare(fromKey, toKey);
+        if (descending ? order < 0 : order > 0)
+        {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        if (!inRange(fromKey, fromInclusive) || !inRange(toKey, toInclusive))
+        {
+            throw new IllegalArgumentException("key out of range");
+        }
+        if (descending)
+        {
+            return view(true, toKey, toInclusive, true, fromKey, fromInclusive);
+        }
+        return view(true, fromKey, fromInclusive, true, toKey, toInclusive);
+    }
+
+    @Override
+    public OrderStatisticTreeMap<K, V> headMap(K toKey, boolean inclusive)
+    {
+        if (!inRange(toKey, inclusive))
+        {
+            throw new IllegalArgumentException("key out of range");
+        }
+        if (descending)
+        {
+            return view(true, toKey, inclusive, !toEnd, hi, hiInclusive);
+        }
+        return view(!fromStart, lo, loInclusive, true, toKey, inclusive);
+    }
+
+    @Override
+    public OrderStatisticTreeMap<K, V> tailMap(K fromKey, boolean inclusive)
+    {
+        if (!inRange(fromKey, inclusive))
+        {
+            throw new IllegalArgumentException("key out of range");
+        }
+        if (descending)
+        {
+            return view(!fromStart, lo, loInclusive, true, fromKey, inclusive);
+        }
+        return view(true, fromKey, inclusive, !toEnd, hi, hiInclusive);
+    }
+
+    @Override
+    public OrderStatisticTreeMap<K, V> subMap(K fromKey, K toKey)
+    {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public OrderStatisticTreeMap<K, V> headMap(K toKey)
+    {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public OrderStatisticTreeMap<K, V> tailMap(K fromKey)
+    {
+        return tailMap(fromKey, true);
+    }
+
+    // ------------------------------------------------------------ helpers
+
+    Iterator<K> keyIterator()
+    {
+        return iterator(0, node -> node.key);
+    }
+
+    /**
+     * Iterates over this view in order, starting 'offset' entries in.
+     */
+    private <T> Iterator<T> iterator(int offset, Function<Node<K, V>, T> extract)
+    {
+        int from = from();
+        int to = to(from);
+        int count = Math.max(0, to - from - offset);
+        int first = descending ? to - 1 - offset : from + offset;
+        return new PathIterator<>(first, count, extract);
+    }
+
+    private OrderStatisticTreeMap<K, V> view(boolean hasLo, K lo, boolean loInclusive,
+                                             boolean hasHi, K hi, boolean hiInclusive)
+    {
+        return new OrderStatisticTreeMap<>(tree, !hasLo, lo, loInclusive,
+                !hasHi, hi, hiInclusive, descending);
+    }
+
+    /**
+     * Position (in the whole tree) of the first entry of this view.
+     */
+    private int from()
+    {
+        return fromStart ? 0 : tree.rankOf(lo, !loInclusive);
+    }
+
+    /**
+     * Position (in the whole tree) just after the last entry of this view.
+     */
+    private int to(int from)
+    {
+        int to = toEnd ? tree.size() : tree.rankOf(hi, hiInclusive);
+        return Math.max(from, to);
+    }
+
+    private boolean tooLow(Object key)
+    {
+        if (fromStart)
+        {
+            return false;
+        }
+        int c = tree.compare(key, lo);
+        return c < 0 || (c == 0 && !loInclusive);
+    }
+
+    private boolean tooHigh(Object key)
+    {
+        if (toEnd)
+        {
+            return false;
+        }
+        int c = tree.compare(key, hi);
+        return c > 0 || (c == 0 && !hiInclusive);
+    }
+
+    private boolean inRange(Object key)
+    {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    /**
+     * Checks a bound for a new view: an exclusive bound may sit on this
+     * view's own exclusive bound.
+     */
+    private boolean inRange(Object key, boolean inclusive)
+    {
+        if (inclusive)
+        {
+            return inRange(key);
+        }
+        return (fromStart || tree.compare(key, lo) >= 0) && (toEnd || tree.compare(key, hi) <= 0);
+    }
+
+    /**
+     * Tree position of the smallest key >= key (or > key when not inclusive)
+     * inside this view, or -1 if there is none.
+     */
+    private int ceilingIndex(Object key, boolean inclusive)
+    {
+        int from = from();
+        int to = to(from);
+        int index = Math.max(from, tree.rankOf(key, !inclusive));
+        return index < to ? index : -1;
+    }
+
+    /**
+     * Tree position of the largest key <= key (or < key when not inclusive)
+     * inside this view, or -1 if there is none.
+     */
+    private int floorIndex(Object key, boolean inclusive)
+    {
+        int from = from();
+        int to = to(from);
+        int index = Math.min(to - 1, tree.rankOf(key, inclusive) - 1);
+        return index >= from ? index : -1;
+    }
+
+    private int firstIndex()
+    {
+        int from = from();
+        int to = to(from);
+        if (from == to)
+        {
+            return -1;
+        }
+        return descending ? to - 1 : from;
+    }
+
+    private int lastIndex()
+    {
+        int from = from();
+        int to = to(from);
+        if (from == to)
+        {
+            return -1;
+        }
+        return descending ? from : to - 1;
+    }
+
+    private Map.Entry<K, V> exportEntry(int index)
+    {
+        return index < 0 ? null : new AbstractMap.SimpleImmutableEntry<>(tree.select(index));
+    }
+
+    private K keyOrNull(int index)
+    {
+        return index < 0 ? null : tree.select(index).key;
+    }
+
+    private K keyOrThrow(int index)
+    {
+        if (index < 0)
+        {
+            throw new NoSuchElementException();
+        }
+        return tree.select(index).key;
+    }
+
+    private Map.Entry<K, V> pollEntry(int index)
+    {
+        if (index < 0)
+        {
+            return null;
+        }
+        Node<K, V> node = tree.select(index);
+        Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>(node);
+        tree.removeNode(node.key);
+        return entry;
+    }
+
+    private static int clamp(int value, int min, int max)
+    {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int size(Node<?, ?> node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * In-order iterator that keeps the path from the root to the next node
+     * on a stack.  It tracks the POSITION of the next node, so after
+     * remove() (which may rebalance the tree) it can find its place again.
+     */
+    private class PathIterator<T> implements Iterator<T>
+    {
+        private final Function<Node<K, V>, T> extract;
+        private final ArrayDeque<Node<K, V>> stack = new ArrayDeque<>();
+        private int next;           // tree position of the next node
+        private int remaining;
+        private Node<K, V> lastReturned;
+        private int expectedModCount = tree.modCount;
+
+        PathIterator(int first, int count, Function<Node<K, V>, T> extract)
+        {
+            this.extract = extract;
+            this.next = first;
+            this.remaining = count;
+            if (count > 0)
+            {
+                descendTo(first);
+            }
+        }
+
+        private void descendTo(int index)
+        {
+            stack.clear();
+            Node<K, V> node = tree.root;
+            while (node != null)
+            {
+                int leftSize = size(node.left);
+                if (index < leftSize)
+                {
+                    if (!descending)
+                    {
+                        stack.push(node);   // visited after its left subtree
+                    }
+                    node = node.left;
+                }
+                else if (index == leftSize)
+                {
+                    stack.push(node);
+                    return;
+                }
+                else
+                {
+                    if (descending)
+                    {
+                        stack.push(node);   // visited after its right subtree
+                    }
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next()
+        {
+            if (tree.modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            if (remaining == 0)
+            {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = stack.pop();
+            if (!descending)
+            {
+                for (Node<K, V> n = node.right; n != null; n = n.left)
+                {
+                    stack.push(n);
+                }
+                next++;
+            }
+            else
+            {
+                for (Node<K, V> n = node.left; n != null; n = n.right)
+                {
+                    stack.push(n);
+                }
+                next--;
+            }
+            remaining--;
+            lastReturned = node;
+            return extract.apply(node);
+        }
+
+        @Override
+        public void remove()
+        {
+            if (lastReturned == null)
+            {
+                throw new IllegalStateException();
+            }
+            if (tree.modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException();
+            }
+            tree.removeNode(lastReturned.key);
+            lastReturned = null;
+            expectedModCount = tree.modCount;
+            if (!descending)
+            {
+                next--;     // later entries have moved down one position
+            }
+            if (remaining > 0)
+            {
+                descendTo(next);
+            }
+        }
+    }
+
+    static final class Node<K, V> implements Map.Entry<K, V>
+    {
+        final K key;
+        V value;
+        Node<K, V> left;
+        Node<K, V> right;
+        int size = 1;       // number of nodes in this subtree
+
+        Node(K key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey()
+        {
+            return key;
+        }
+
+        @Override
+        public V getValue()
+        {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value)
+        {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Map.Entry))
+            {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString()
+        {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * The weight-balanced tree shared by a map and all of its views.
+     */
+    private static final class Tree<K, V>
+    {
+        private static final int DELTA = 3;     // max ratio of the sizes of two sibling subtrees
+        private static final int RATIO = 2;     // decides between single and double rotation
+
+        final Comparator<? super K> comparator;
+        Node<K, V> root;
+        int modCount;
+        private Node<K, V> found;   // node matched by the last insert() or delete()
+
+        Tree(Comparator<? super K> comparator)
+        {
+            this.comparator = comparator;
+        }
+
+        int size()
+        {
+            return OrderStatisticTreeMap.size(root);
+        }
+
+        @SuppressWarnings("unchecked")
+        int compare(Object key1, Object key2)
+        {
+            if (comparator != null)
+            {
+                return comparator.compare((K) key1, (K) key2);
+            }
+            return ((Comparable<Object>) Objects.requireNonNull(key1)).compareTo(Objects.requireNonNull(key2));
+        }
+
+        Node<K, V> getNode(Object key)
+        {
+            Node<K, V> node = root;
+            while (node != null)
+            {
+                int c = compare(key, node.key);
+                if (c == 0)
+                {
+                    return node;
+                }
+                node = c < 0 ? node.left : node.right;
+            }
+            return null;
+        }
+
+        /**
+         * Number of keys < key, or <= key when inclusive.
+         */
+        int rankOf(Object key, boolean inclusive)
+        {
+            int rank = 0;
+            Node<K, V> node = root;
+            while (node != null)
+            {
+                int c = compare(key, node.key);
+                if (c < 0 || (c == 0 && !inclusive))
+                {
+                    node = node.left;
+                }
+                else
+                {
+                    rank += OrderStatisticTreeMap.size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return rank;
+        }
+
+        Node<K, V> select(int index)
+        {
+            Node<K, V> node = root;
+            while (node != null)
+            {
+                int leftSize = OrderStatisticTreeMap.size(node.left);
+                if (index < leftSize)
+                {
+                    node = node.left;
+                }
+                else if (index == leftSize)
+                {
+                    return node;
+                }
+                else
+                {
+                    index -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+
+        V put(K key, V value)
+        {
+            if (root == null)
+            {
+                compare(key, key);      // type (and null) check, as TreeMap does
+            }
+            found = null;
+            root = insert(root, key, value);
+            if (found == null)
+            {
+                return null;
+            }
+            V old = found.value;
+            found.value = value;
+            found = null;
+            return old;
+        }
+
+        /**
+         * Removes the key, returning its node (or null if it was not present).
+         */
+        Node<K, V> removeNode(Object key)
+        {
+            found = null;
+            root = delete(root, key);
+            Node<K, V> removed = found;
+            found = null;
+            if (removed != null)
+            {
+                modCount++;
+                removed.left = null;
+                removed.right = null;
+            }
+            return removed;
+        }
+
+        void clear()
+        {
+            root = null;
+            modCount++;
+        }
+
+        /**
+         * Builds a perfectly balanced tree from keys that are already
+         * in strictly ascending order.  If values is null, every key is
+         * given 'value'.
+         */
+        void build(Iterator<? extends K> keys, Iterator<? extends V> values, int size, V value)
+        {
+            root = build(keys, values, 0, size - 1, value);
+            modCount++;
+        }
+
+        private Node<K, V> build(Iterator<? extends K> keys, Iterator<? extends V> values,
+                                 int first, int last, V value)
+        {
+            if (first > last)
+            {
+                return null;
+            }
+            int middle = (first + last) >>> 1;
+            Node<K, V> left = build(keys, values, first, middle - 1, value);
+            Node<K, V> node = new Node<>(keys.next(), values == null ? value : values.next());
+            node.left = left;
+            node.right = build(keys, values, middle + 1, last, value);
+            node.size = last - first + 1;
+            return node;
+        }
+
+        private Node<K, V> insert(Node<K, V> node, K key, V value)
+        {
+            if (node == null)
+            {
+                modCount++;
+                return new Node<>(key, value);
+            }
+            int c = compare(key, node.key);
+            if (c < 0)
+            {
+                node.left = insert(node.left, key, value);
+            }
+            else if (c > 0)
+            {
+                node.right = insert(node.right, key, value);
+            }
+            else
+            {
+                found = node;
+                return node;
+            }
+            return balance(node);
+        }
+
+        private Node<K, V> delete(Node<K, V> node, Object key)
+        {
+            if (node == null)
+            {
+                return null;
+            }
+            int c = compare(key, node.key);
+            if (c < 0)
+            {
+                node.left = delete(node.left, key);
+            }
+            else if (c > 0)
+            {
+                node.right = delete(node.right, key);
+            }
+            else
+            {
+                found = node;
+                return join(node.left, node.right);
+            }
+            return balance(node);
+        }
+
+        /**
+         * Joins two subtrees (every key in left < every key in right),
+         * moving the nearest node from the larger side up as the new root.
+         */
+        private Node<K, V> join(Node<K, V> left, Node<K, V> right)
+        {
+            if (left == null)
+            {
+                return right;
+            }
+            if (right == null)
+            {
+                return left;
+            }
+            if (left.size > right.size)
+            {
+                Node<K, V> max = left;
+                while (max.right != null)
+                {
+                    max = max.right;
+                }
+                max.left = deleteMax(left);
+                max.right = right;
+                return balance(max);
+            }
+            Node<K, V> min = right;
+            while (min.left != null)
+            {
+                min = min.left;
+            }
+            min.right = deleteMin(right);
+            min.left = left;
+            return balance(min);
+        }
+
+        private Node<K, V> deleteMin(Node<K, V> node)
+        {
+            if (node.left == null)
+            {
+                return node.right;
+            }
+            node.left = deleteMin(node.left);
+            return balance(node);
+        }
+
+        private Node<K, V> deleteMax(Node<K, V> node)
+        {
+            if (node.right == null)
+            {
+                return node.left;
+            }
+            node.right = deleteMax(node.right);
+            return balance(node);
+        }
+
+        /**
+         * Restores the balance of a node after one of its subtrees has
+         * grown or shrunk by one, and updates its size.
+         */
+        private Node<K, V> balance(Node<K, V> node)
+        {
+            int leftSize = OrderStatisticTreeMap.size(node.left);
+            int rightSize = OrderStatisticTreeMap.size(node.right);
+            if (leftSize + rightSize > 1)
+            {
+                if (rightSize > DELTA * leftSize)
+                {
+                    Node<K, V> right = node.right;
+                    if (OrderStatisticTreeMap.size(right.left) >= RATIO * OrderStatisticTreeMap.size(right.right))
+                    {
+                        node.right = rotateRight(right);    // double rotation
+                    }
+                    return rotateLeft(node);
+                }
+                if (leftSize > DELTA * rightSize)
+                {
+                    Node<K, V> left = node.left;
+                    if (OrderStatisticTreeMap.size(left.right) >= RATIO * OrderStatisticTreeMap.size(left.left))
+                    {
+                        node.left = rotateLeft(left);       // double rotation
+                    }
+                    return rotateRight(node);
+                }
+            }
+            node.size = leftSize + rightSize + 1;
+            return node;
+        }
+
+        private Node<K, V> rotateLeft(Node<K, V> node)
+        {
+            Node<K, V> right = node.right;
+            node.right = right.left;
+            updateSize(node);
+            right.left = node;
+            updateSize(right);
+            return right;
+        }
+
+        private Node<K, V> rotateRight(Node<K, V> node)
+        {
+            Node<K, V> left = node.left;
+            node.left = left.right;
+            updateSize(node);
+            left.right = node;
+            updateSize(left);
+            return left;
+        }
+
+        private static void updateSize(Node<?, ?> node)
+        {
+            node.size = OrderStatisticTreeMap.size(node.left) + OrderStatisticTreeMap.size(node.right) + 1;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package dkit.sd2.ranked;
+
+/*                                                        October 2026
+ * OrderStatisticTreeSet - a sorted Set (like TreeSet) with O(log n)
+ * rank(), select(), countInRange() and page().
+ *
+ * Backed by an OrderStatisticTreeMap, in the same way that TreeSet is
+ * backed by a TreeMap; see that class for how it works.
+ *
+ * e.g. with the Books from SetsExamples.treeSetOfBookObjects():
+ *      OrderStatisticTreeSet<Book> books = new OrderStatisticTreeSet<>();
+ *      ...
+ *      books.rank(book)        position of the book in sorted order
+ *      books.select(1000)      the 1001st book
+ */
+
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+
+public class OrderStatisticTreeSet<E> extends AbstractSet<E> implements NavigableSet<E>
+{
+    private static final Object PRESENT = new Object();
+
+    private final OrderStatisticTreeMap<E, Object> m;
+    private final boolean keySetView;   // true for a map's keySet(): add() is not supported
+
+    public OrderStatisticTreeSet()
+    {
+        this(new OrderStatisticTreeMap<>(), false);
+    }
+
+    public OrderStatisticTreeSet(Comparator<? super E> comparator)
+    {
+        this(new OrderStatisticTreeMap<>(comparator), false);
+    }
+
+    public OrderStatisticTreeSet(Collection<? extends E> elements)
+    {
+        this();
+        addAll(elements);
+    }
+
+    /**
+     * Copies a sorted set (e.g. a TreeSet), using the same ordering, in O(n).
+     */
+    public OrderStatisticTreeSet(SortedSet<E> elements)
+    {
+        this(new OrderStatisticTreeMap<>(elements, PRESENT), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    OrderStatisticTreeSet(OrderStatisticTreeMap<E, ?> map, boolean keySetView)
+    {
+        this.m = (OrderStatisticTreeMap<E, Object>) map;
+        this.keySetView = keySetView;
+    }
+
+    // ------------------------------------------------- order statistics
+
+    /**
+     * Returns the number of elements that come before the given element
+     * (which does not need to be in the set).
+     */
+    public int rank(Object element)
+    {
+        return m.rank(element);
+    }
+
+    /**
+     * Returns the element at position 'index' (0 is the first element).
+     *
+     * @throws IndexOutOfBoundsException if index is not in 0..size()-1
+     */
+    public E select(int index)
+    {
+        return m.select(index).getKey();
+    }
+
+    /**
+     * Returns the number of elements from fromElement (inclusive) to
+     * toElement (exclusive), the same range as subSet(fromElement, toElement).
+     */
+    public int countInRange(E fromElement, E toElement)
+    {
+        return m.countInRange(fromElement, toElement);
+    }
+
+    public int countInRange(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive)
+    {
+        return m.countInRange(fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    /**
+     * Returns up to 'limit' elements, starting at position 'offset'.
+     */
+    public List<E> page(int offset, int limit)
+    {
+        List<Map.Entry<E, Object>> entries = m.page(offset, limit);
+        List<E> page = new ArrayList<>(entries.size());
+        for (Map.Entry<E, Object> entry : entries)
+        {
+            page.add(entry.getKey());
+        }
+        return page;
+    }
+
+    // ---------------------------------------------------------------- Set
+
+    @Override
+    public int size()
+    {
+        return m.size();
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return m.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return m.containsKey(o);
+    }
+
+    @Override
+    public boolean add(E element)
+    {
+        if (keySetView)
+        {
+            throw new UnsupportedOperationException();
+        }
+        return m.put(element, PRESENT) == null;
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        if (!m.containsKey(o))
+        {
+            return false;
+        }
+        m.remove(o);
+        return true;
+    }
+
+    @Override
+    public void clear()
+    {
+        m.clear();
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        return m.keyIterator();
+    }
+
+    // ------------------------------------------------------- NavigableSet
+
+    @Override
+    public Comparator<? super E> comparator()
+    {
+        return m.comparator();
+    }
+
+    @Override
+    public E first()
+    {
+        return m.firstKey();
+    }
+
+    @Override
+    public E last()
+    {
+        return m.lastKey();
+    }
+
+    @Override
+    public E lower(E element)
+    {
+        return m.lowerKey(element);
+    }
+
+    @Override
+    public E floor(E element)
+    {
+        return m.floorKey(element);
+    }
+
+    @Override
+    public E ceiling(E element)
+    {
+        return m.ceilingKey(element);
+    }
+
+    @Override
+    public E higher(E element)
+    {
+        return m.higherKey(element);
+    }
+
+    @Override
+    public E pollFirst()
+    {
+        Map.Entry<E, ?> entry = m.pollFirstEntry();
+        return entry == null ? null : entry.getKey();
+    }
+
+    @Override
+    public E pollLast()
+    {
+        Map.Entry<E, ?> entry = m.pollLastEntry();
+        return entry == null ? null : entry.getKey();
+    }
+
+    @Override
+    public OrderStatisticTreeSet<E> descendingSet()
+    {
+        return new OrderStatisticTreeSet<>(m.descendingMap(), keySetView);
+    }
+
+    @Override
+    public Iterator<E> descendingIterator()
+    {
+        return m.descendingMap().keyIterator();
+    }
+
+    @Override
+    public OrderStatisticTreeSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive)
+    {
+        return new OrderStatisticTreeSet<>(m.subMap(fromElement, fromInclusive, toElement, toInclusive), keySetView);
+    }
+
+    @Override
+    public OrderStatisticTreeSet<E> headSet(E toElement, boolean inclusive)
+    {
+        return new OrderStatisticTreeSet<>(m.headMap(toElement, inclusive), keySetView);
+    }
+
+    @Override
+    public OrderStatisticTreeSet<E> tailSet(E fromElement, boolean inclusive)
+    {
+        return new OrderStatisticTreeSet<>(m.tailMap(fromElement, inclusive), keySetView);
+    }
+
+    @Override
+    public OrderStatisticTreeSet<E> subSet(E fromElement, E toElement)
+    {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public OrderStatisticTreeSet<E> headSet(E toElement)
+    {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public OrderStatisticTreeSet<E> tailSet(E fromElement)
+    {
+        return tailSet(fromElement, true);
+    }
+}
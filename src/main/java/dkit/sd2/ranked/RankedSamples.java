@@ -0,0 +1,168 @@
+package dkit.sd2.ranked;
+
+/*                                                        October 2026
+ * Samples and benchmark for OrderStatisticTreeMap / OrderStatisticTreeSet.
+ *
+ * A catalogue of Books keyed by Long code (as in MapSamples.map6()) is
+ * held in a TreeMap and in an OrderStatisticTreeMap.  Each question is
+ * answered both ways:
+ *
+ *   page   20 entries starting deep into the catalogue
+ *            TreeMap: iterate and skip 'offset' entries
+ *   rank   position of a code
+ *            TreeMap: headMap(code).size(), which counts one by one
+ *   count  number of codes between two codes
+ *            TreeMap: subMap(lo, hi).size(), which counts one by one
+ *
+ * Usage: RankedSamples [books]     (default 10,000,000; try -Xmx3g)
+ */
+
+
+import dkit.sd2.maps.Book;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class RankedSamples
+{
+    static final int PAGE_SIZE = 20;
+    static final int QUERIES = 20;
+
+    public static void main(String[] args)
+    {
+        treeSetOfBookObjects();
+
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        if (books < 1)
+        {
+            throw new IllegalArgumentException("books must be at least 1");
+        }
+        String[] titles = new String[1000];     // shared, to keep the heap small
+        for (int i = 0; i < titles.length; i++)
+        {
+            titles[i] = "Title " + i;
+        }
+        TreeMap<Long, Book> treeMap = new TreeMap<>();
+        for (int i = 0; i < books; i++)
+        {
+            treeMap.put(200_000L + 3L * i, new Book(i, titles[i % titles.length]));
+        }
+        OrderStatisticTreeMap<Long, Book> catalogue = new OrderStatisticTreeMap<>(treeMap);   // O(n) copy
+
+        Random random = new Random(3);
+        long[] offsets = new long[QUERIES];
+        long[] codes = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++)
+        {
+            // deep pages: a random offset in the second half of the catalogue
+            offsets[i] = books / 2 + random.nextInt(Math.max(1, books - books / 2 - PAGE_SIZE));
+            codes[i] = 200_000L + random.nextInt(3 * books);
+        }
+
+        for (int round = 0; round < 2; round++)     // first round warms up the JIT
+        {
+            System.out.println(round == 0 ? "Warm-up" : "Results (" + books + " books)");
+            pages(treeMap, catalogue, offsets);
+            ranks(treeMap, catalogue, codes);
+            counts(treeMap, catalogue, codes);
+        }
+    }
+
+    static void treeSetOfBookObjects()
+    {
+        OrderStatisticTreeSet<dkit.sd2.sets.Book> books = new OrderStatisticTreeSet<>();
+        books.add(new dkit.sd2.sets.Book(9999, "Jaws"));
+        books.add(new dkit.sd2.sets.Book(9999, "Stardust"));
+        books.add(new dkit.sd2.sets.Book(2222, "Heist"));
+        books.add(new dkit.sd2.sets.Book(4444, "Alien"));
+        books.add(new dkit.sd2.sets.Book(1111, "Tatoos"));
+        books.add(new dkit.sd2.sets.Book(3333, "Life on Earth"));
+
+        dkit.sd2.sets.Book alien = new dkit.sd2.sets.Book(4444, "Alien");
+        System.out.println("Books in order: " + books);
+        System.out.println("Position of " + alien + ": " + books.rank(alien));
+        System.out.println("Third book: " + books.select(2));
+        System.out.println("Books 2 to 3: " + books.page(1, 2) + "\n");
+    }
+
+    static void pages(TreeMap<Long, Book> treeMap, OrderStatisticTreeMap<Long, Book> catalogue, long[] offsets)
+    {
+        long start = System.nanoTime();
+        long check = 0;
+        for (long offset : offsets)
+        {
+            Iterator<Map.Entry<Long, Book>> entries = treeMap.entrySet().iterator();
+            for (long skip = 0; skip < offset; skip++)
+            {
+                entries.next();
+            }
+            for (int i = 0; i < PAGE_SIZE && entries.hasNext(); i++)
+            {
+                check += entries.next().getKey();
+            }
+        }
+        report("page  TreeMap skip ", offsets.length, System.nanoTime() - start, check);
+
+        start = System.nanoTime();
+        check = 0;
+        for (long offset : offsets)
+        {
+            List<Map.Entry<Long, Book>> page = catalogue.page((int) offset, PAGE_SIZE);
+            for (Map.Entry<Long, Book> entry : page)
+            {
+                check += entry.getKey();
+            }
+        }
+        report("page  order-stat   ", offsets.length, System.nanoTime() - start, check);
+    }
+
+    static void ranks(TreeMap<Long, Book> treeMap, OrderStatisticTreeMap<Long, Book> catalogue, long[] codes)
+    {
+        long start = System.nanoTime();
+        long check = 0;
+        for (long code : codes)
+        {
+            check += treeMap.headMap(code).size();
+        }
+        report("rank  TreeMap      ", codes.length, System.nanoTime() - start, check);
+
+        start = System.nanoTime();
+        check = 0;
+        for (long code : codes)
+        {
+            check += catalogue.rank(code);
+        }
+        report("rank  order-stat   ", codes.length, System.nanoTime() - start, check);
+    }
+
+    static void counts(TreeMap<Long, Book> treeMap, OrderStatisticTreeMap<Long, Book> catalogue, long[] codes)
+    {
+        long start = System.nanoTime();
+        long check = 0;
+        for (int i = 1; i < codes.length; i++)
+        {
+            long lo = Math.min(codes[i - 1], codes[i]);
+            long hi = Math.max(codes[i - 1], codes[i]);
+            check += treeMap.subMap(lo, hi).size();
+        }
+        report("count TreeMap      ", codes.length - 1, System.nanoTime() - start, check);
+
+        start = System.nanoTime();
+        check = 0;
+        for (int i = 1; i < codes.length; i++)
+        {
+            long lo = Math.min(codes[i - 1], codes[i]);
+            long hi = Math.max(codes[i - 1], codes[i]);
+            check += catalogue.countInRange(lo, hi);
+        }
+        report("count order-stat   ", codes.length - 1, System.nanoTime() - start, check);
+    }
+
+    static void report(String name, int queries, long nanos, long check)
+    {
+        System.out.printf("%s: %12.1f us/query   (check %d)%n", name, nanos / 1e3 / queries, check);
+    }
+}
@@ -0,0 +1,371 @@
+package dkit.sd2.codec;
+
+/*                                                        October 2026
+ * Round trips every CollectionCodec writer/reader pair, with and without
+ * the dictionary, through 16-byte buffers so that refills (and, in gather
+ * mode, segment switches) happen in the middle of varints and UTF-8 chars.
+ */
+
+
+import dkit.sd2.hashing.HashingStrategies;
+import dkit.sd2.maps.Book;
+import dkit.sd2.maps.Student;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CollectionCodecTest
+{
+    private static final int SMALL = 16;
+
+    private static final List<String> TITLES = Arrays.asList(
+            "Jaws", "", null, "Café crème", "日本語の本",
+            "Emoji 😀 in a title that is longer than one buffer",
+            "📚📖📕", "Dune", "Jaws");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private interface Writing
+    {
+        void writeTo(BinaryWriter out) throws IOException;
+    }
+
+    @Test
+    public void stringsRoundTrip() throws IOException
+    {
+        for (int segments = 1; segments <= 3; segments++)
+        {
+            byte[] data = write(segments, out ->
+            {
+                for (String title : TITLES)
+                {
+                    out.writeString(title);
+                }
+                out.flush();
+            });
+            BinaryReader in = reader(data);
+            for (String title : TITLES)
+            {
+                assertEquals(title, in.readString());
+            }
+        }
+    }
+
+    @Test
+    public void unpairedSurrogateIsWrittenAsQuestionMark() throws IOException
+    {
+        byte[] data = write(1, out ->
+        {
+            out.writeString("a\uD83Db\uDE00");
+            out.flush();
+        });
+        assertEquals("a?b?", reader(data).readString());
+    }
+
+    @Test
+    public void varintsRoundTrip() throws IOException
+    {
+        int[] ints = {0, 1, -1, 63, -64, 64, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        long[] longs = {0, -1, 1L << 35, Long.MAX_VALUE, Long.MIN_VALUE};
+        byte[] data = write(2, out ->
+        {
+            for (int value : ints)
+            {
+                out.writeVarInt(value);
+                out.writeSignedVarInt(value);
+            }
+            for (long value : longs)
+            {
+                out.writeVarLong(value);
+                out.writeSignedVarLong(value);
+            }
+            out.flush();
+        });
+        BinaryReader in = reader(data);
+        for (int value : ints)
+        {
+            assertEquals(value, in.readVarInt());
+            assertEquals(value, in.readSignedVarInt());
+        }
+        for (long value : longs)
+        {
+            assertEquals(value, in.readVarLong());
+            assertEquals(value, in.readSignedVarLong());
+        }
+    }
+
+    @Test
+    public void overflowingVarintIsRejected() throws IOException
+    {
+        assertCorrupt(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x10});
+        assertCorrupt(new byte[] {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x00});
+
+        byte[] tenBytes = new byte[10];
+        Arrays.fill(tenBytes, (byte) 0xFF);
+        tenBytes[9] = 0x02;
+        try
+        {
+            reader(tenBytes).readVarLong();
+            fail("expected an IOException");
+        }
+        catch (IOException expected)
+        {
+            // corrupt
+        }
+    }
+
+    @Test
+    public void bookSetsRoundTrip() throws IOException
+    {
+        Set<dkit.sd2.sets.Book> books = new HashSet<>();
+        for (int i = 0; i < 50; i++)
+        {
+            books.add(new dkit.sd2.sets.Book(i * 37 - 900, TITLES.get(i % TITLES.size())));
+        }
+        for (boolean dictionary : new boolean[] {false, true})
+        {
+            for (int segments = 1; segments <= 3; segments++)
+            {
+                byte[] data = write(segments, out -> new CollectionCodec(dictionary).writeBookSet(out, books));
+                assertEquals(books, new CollectionCodec(false).readBookHashSet(reader(data)));
+
+                Set<dkit.sd2.sets.Book> sorted = new CollectionCodec(false).readBookTreeSet(reader(data), null);
+                assertTrue(sorted instanceof TreeSet);
+                assertEquals(new TreeSet<>(books), sorted);
+            }
+        }
+    }
+
+    @Test
+    public void bookMapsRoundTrip() throws IOException
+    {
+        Map<Long, Book> bookMap = new HashMap<>();
+        for (int i = 0; i < 50; i++)
+        {
+            bookMap.put(i * 1_000_000_007L - 20_000_000_000L, new Book(-i, TITLES.get(i % TITLES.size())));
+        }
+        for (boolean dictionary : new boolean[] {false, true})
+        {
+            byte[] data = write(3, out -> new CollectionCodec(dictionary).writeBookMap(out, bookMap));
+            assertSameBooks(bookMap, new CollectionCodec(false).readBookHashMap(reader(data)));
+
+            Map<Long, Book> sorted = new CollectionCodec(false).readBookTreeMap(reader(data));
+            assertTrue(sorted instanceof TreeMap);
+            assertSameBooks(bookMap, sorted);
+        }
+    }
+
+    @Test
+    public void favouriteBooksRoundTrip() throws IOException
+    {
+        Map<Student, Book> favouriteBook = favouriteBooks();
+        for (boolean dictionary : new boolean[] {false, true})
+        {
+            byte[] data = write(2, out -> new CollectionCodec(dictionary).writeFavouriteBooks(out, favouriteBook));
+            assertSameFavourites(favouriteBook, new CollectionCodec(false).readFavouriteBooks(reader(data)));
+
+            Map<Student, Book> sorted = new CollectionCodec(false)
+                    .readFavouriteBooksTreeMap(reader(data), HashingStrategies.STUDENT_ID_ORDER);
+            assertTrue(sorted instanceof TreeMap);
+            assertSameFavourites(favouriteBook, sorted);
+        }
+    }
+
+    @Test
+    public void dictionarySharesRepeatedStrings() throws IOException
+    {
+        Map<Long, Book> bookMap = new LinkedHashMap<>();
+        for (long key = 0; key < 100; key++)
+        {
+            bookMap.put(key, new Book((int) key, key % 3 == 0 ? null : "Title " + (key % 5)));
+        }
+        byte[] plain = write(1, out -> new CollectionCodec(false).writeBookMap(out, bookMap));
+        byte[] shared = write(1, out -> new CollectionCodec(true).writeBookMap(out, bookMap));
+        assertTrue(shared.length < plain.length);
+
+        Map<Long, Book> result = new CollectionCodec(false).readBookHashMap(reader(shared));
+        assertSameBooks(bookMap, result);
+        assertSame(result.get(1L).getTitle(), result.get(11L).getTitle());     // back-reference
+    }
+
+    @Test
+    public void twoCollectionsInOneStream() throws IOException
+    {
+        Set<dkit.sd2.sets.Book> books = new HashSet<>();
+        books.add(new dkit.sd2.sets.Book(1, "Jaws"));
+        books.add(new dkit.sd2.sets.Book(2, "Dune"));
+        Map<Student, Book> favouriteBook = favouriteBooks();
+
+        CollectionCodec writing = new CollectionCodec(true);
+        byte[] data = write(2, out ->
+        {
+            writing.writeBookSet(out, books);
+            writing.writeFavouriteBooks(out, favouriteBook);    // dictionary starts again
+        });
+
+        CollectionCodec reading = new CollectionCodec(false);
+        BinaryReader in = reader(data);
+        assertEquals(books, reading.readBookHashSet(in));
+        assertSameFavourites(favouriteBook, reading.readFavouriteBooks(in));
+    }
+
+    @Test
+    public void corruptStreamsAreRejected() throws IOException
+    {
+        Map<Long, Book> bookMap = new HashMap<>();
+        bookMap.put(1L, new Book(1, "Jaws"));
+        bookMap.put(2L, new Book(2, "Jaws"));
+        byte[] data = write(1, out -> new CollectionCodec(true).writeBookMap(out, bookMap));
+
+        // truncated
+        try
+        {
+            new CollectionCodec(false).readBookHashMap(reader(Arrays.copyOf(data, data.length - 1)));
+            fail("expected an EOFException");
+        }
+        catch (EOFException expected)
+        {
+            // corrupt
+        }
+
+        // wrong kind
+        try
+        {
+            new CollectionCodec(false).readBookHashSet(reader(data));
+            fail("expected an IOException");
+        }
+        catch (IOException expected)
+        {
+            assertTrue(expected.getMessage().startsWith("Expected record kind"));
+        }
+
+        // the second title is a back-reference (1 byte, value 1): point it past the dictionary
+        byte[] badReference = data.clone();
+        assertEquals(1, badReference[badReference.length - 1]);
+        badReference[badReference.length - 1] = 5;
+        try
+        {
+            new CollectionCodec(false).readBookHashMap(reader(badReference));
+            fail("expected an IOException");
+        }
+        catch (IOException expected)
+        {
+            assertTrue(expected.getMessage().startsWith("Corrupt dictionary reference"));
+        }
+
+        // a huge record count must not be allocated up front
+        byte[] hugeCount = write(1, out ->
+        {
+            out.writeInt(CollectionCodec.MAGIC);
+            out.writeByte(CollectionCodec.KIND_BOOK_SET);
+            out.writeByte(0);
+            out.writeVarInt(Integer.MAX_VALUE);
+            out.flush();
+        });
+        try
+        {
+            new CollectionCodec(false).readBookHashSet(reader(hugeCount));
+            fail("expected an EOFException");
+        }
+        catch (EOFException expected)
+        {
+            // corrupt
+        }
+    }
+
+    private static Map<Student, Book> favouriteBooks()
+    {
+        Map<Student, Book> favouriteBook = new HashMap<>();
+        for (int i = 0; i < 40; i++)
+        {
+            String name = i % 7 == 0 ? null : "Student Ó" + (i % 4);
+            favouriteBook.put(new Student(i - 20, name), new Book(i, TITLES.get(i % TITLES.size())));
+        }
+        return favouriteBook;
+    }
+
+    /**
+     * Writes with 16-byte segments to a FileChannel (which supports gather
+     * mode) and returns the bytes written.
+     */
+    private byte[] write(int segments, Writing writing) throws IOException
+    {
+        Path file = folder.newFile().toPath();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+        {
+            writing.writeTo(new BinaryWriter(channel, SMALL, segments));
+        }
+        return Files.readAllBytes(file);
+    }
+
+    private static BinaryReader reader(byte[] data)
+    {
+        return new BinaryReader(Channels.newChannel(new ByteArrayInputStream(data)), SMALL);
+    }
+
+    private static void assertCorrupt(byte[] varint)
+    {
+        try
+        {
+            reader(varint).readVarInt();
+            fail("expected an IOException");
+        }
+        catch (IOException expected)
+        {
+            assertEquals("Malformed varint", expected.getMessage());
+        }
+    }
+
+    private static void assertSameBooks(Map<Long, Book> expected, Map<Long, Book> actual)
+    {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<Long, Book> entry : expected.entrySet())
+        {
+            assertSameBook(entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+
+    private static void assertSameFavourites(Map<Student, Book> expected, Map<Student, Book> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        List<Student> students = new ArrayList<>(actual.keySet());
+        for (Map.Entry<Student, Book> entry : expected.entrySet())
+        {
+            assertTrue(students.contains(entry.getKey()));      // Student.equals() compares id and name
+            assertSameBook(entry.getValue(), actual.get(entry.getKey()));
+        }
+    }
+
+    private static void assertSameBook(Book expected, Book actual)
+    {
+        assertNotNull(actual);
+        assertEquals(expected.getCode(), actual.getCode());
+        assertEquals(expected.getTitle(), actual.getTitle());
+    }
+}
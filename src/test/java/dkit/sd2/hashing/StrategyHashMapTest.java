@@ -0,0 +1,210 @@
+package dkit.sd2.hashing;
+
+/*                                                        October 2026
+ * Compares StrategyHashMap against java.util.HashMap after random puts,
+ * removes and iterator removes, using a strategy whose hash codes collide
+ * a lot (so that long runs of full and DELETED slots are probed), and
+ * checks that hashCode(), keySet() and entrySet() follow the strategy.
+ */
+
+
+import dkit.sd2.maps.Student;
+import dkit.sd2.sets.Book;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StrategyHashMapTest
+{
+    private static final int KEYS = 300;
+
+    /** Integers compared by value, but with only 8 different hash codes. */
+    private static final HashingStrategy<Integer> COLLIDING = new HashingStrategy<Integer>()
+    {
+        @Override
+        public int hashCode(Integer key)
+        {
+            return key & 7;
+        }
+
+        @Override
+        public boolean equals(Integer key1, Integer key2)
+        {
+            return key1.intValue() == key2.intValue();
+        }
+    };
+
+    private final Random random = new Random(11);
+
+    @Test
+    public void matchesHashMapAfterRandomChanges()
+    {
+        for (int round = 0; round < 50; round++)
+        {
+            HashMap<Integer, Integer> expected = new HashMap<>();
+            StrategyHashMap<Integer, Integer> actual = new StrategyHashMap<>(COLLIDING, random.nextInt(4));
+
+            for (int i = 0; i < 2000; i++)
+            {
+                Integer key = random.nextInt(KEYS);
+                switch (random.nextInt(5))
+                {
+                    case 0:
+                    case 1:
+                        Integer value = random.nextInt();
+                        assertEquals(expected.put(key, value), actual.put(key, value));
+                        break;
+                    case 2:
+                        assertEquals(expected.remove(key), actual.remove(key));
+                        break;
+                    case 3:
+                        assertEquals(expected.keySet().remove(key), actual.keySet().remove(key));
+                        break;
+                    default:
+                        Map.Entry<Integer, Integer> entry =
+                                new AbstractMap.SimpleEntry<>(key, expected.getOrDefault(key, 0));
+                        assertEquals(expected.entrySet().contains(entry), actual.entrySet().contains(entry));
+                        assertEquals(expected.entrySet().remove(entry), actual.entrySet().remove(entry));
+                        break;
+                }
+                assertEquals(expected.size(), actual.size());
+            }
+            removeSomeWithIterator(expected, actual);
+            assertSame(expected, actual);
+        }
+    }
+
+    @Test
+    public void emptiedAndRefilledMapStillFindsEveryKey()
+    {
+        // many put/remove cycles leave DELETED slots, which put() must
+        // clear out by rebuilding the table in place
+        StrategyHashMap<Integer, Integer> actual = new StrategyHashMap<>(COLLIDING);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int cycle = 0; cycle < 20; cycle++)
+        {
+            for (int key = cycle * 10; key < cycle * 10 + 100; key++)
+            {
+                expected.put(key, cycle);
+                actual.put(key, cycle);
+            }
+            for (int key = cycle * 10; key < cycle * 10 + 90; key++)
+            {
+                assertEquals(expected.remove(key), actual.remove(key));
+            }
+            assertSame(expected, actual);
+        }
+        actual.clear();
+        assertTrue(actual.isEmpty());
+        assertNull(actual.get(195));
+    }
+
+    @Test
+    public void keySetRemoveUsesTheStrategy()
+    {
+        StrategyHashMap<Student, String> map = new StrategyHashMap<>(HashingStrategies.STUDENT_BY_ID);
+        map.put(new Student(1, "Ann"), "Jaws");
+        map.put(new Student(2, "Bob"), "Dune");
+
+        assertTrue(map.containsKey(new Student(1, null)));
+        assertTrue(map.keySet().contains(new Student(1, null)));
+        assertTrue(map.keySet().remove(new Student(1, null)));
+        assertFalse(map.containsKey(new Student(1, "Ann")));
+        assertFalse(map.keySet().remove(new Student(1, null)));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void entrySetContainsAndRemoveUseTheStrategy()
+    {
+        StrategyHashMap<Student, String> map = new StrategyHashMap<>(HashingStrategies.STUDENT_BY_ID);
+        map.put(new Student(1, "Ann"), "Jaws");
+
+        assertFalse(map.entrySet().contains(new AbstractMap.SimpleEntry<>(new Student(1, null), "Dune")));
+        assertFalse(map.entrySet().remove(new AbstractMap.SimpleEntry<>(new Student(1, null), "Dune")));
+        assertTrue(map.entrySet().contains(new AbstractMap.SimpleEntry<>(new Student(1, null), "Jaws")));
+        assertTrue(map.entrySet().remove(new AbstractMap.SimpleEntry<>(new Student(1, null), "Jaws")));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void equalMapsHaveEqualHashCodes()
+    {
+        StrategyHashMap<Student, String> map1 = new StrategyHashMap<>(HashingStrategies.STUDENT_BY_ID);
+        StrategyHashMap<Student, String> map2 = new StrategyHashMap<>(HashingStrategies.STUDENT_BY_ID);
+        map1.put(new Student(1, "Ann"), "Jaws");
+        map2.put(new Student(1, "Anne"), "Jaws");
+
+        assertEquals(map1, map2);
+        assertEquals(map1.hashCode(), map2.hashCode());
+        assertEquals(map1.keySet(), map2.keySet());
+        assertEquals(map1.keySet().hashCode(), map2.keySet().hashCode());
+    }
+
+    @Test
+    public void equalSetsHaveEqualHashCodes()
+    {
+        StrategyHashSet<Book> set1 = new StrategyHashSet<>(HashingStrategies.BOOK_BY_TITLE_IGNORE_CASE);
+        StrategyHashSet<Book> set2 = new StrategyHashSet<>(HashingStrategies.BOOK_BY_TITLE_IGNORE_CASE);
+        set1.add(new Book(1, "Jaws"));
+        set2.add(new Book(2, "JAWS"));
+
+        assertEquals(set1, set2);
+        assertEquals(set1.hashCode(), set2.hashCode());
+        assertFalse(set1.add(new Book(3, "jaws")));
+        assertEquals(1, set1.size());
+    }
+
+    private void removeSomeWithIterator(Map<Integer, Integer> expected, StrategyHashMap<Integer, Integer> actual)
+    {
+        Iterator<Integer> keys = actual.keySet().iterator();
+        while (keys.hasNext())
+        {
+            Integer key = keys.next();
+            if (random.nextInt(3) == 0)
+            {
+                keys.remove();
+                expected.remove(key);
+            }
+        }
+        Iterator<Map.Entry<Integer, Integer>> entries = actual.entrySet().iterator();
+        while (entries.hasNext())
+        {
+            Map.Entry<Integer, Integer> entry = entries.next();
+            if (random.nextInt(3) == 0)
+            {
+                entries.remove();
+                expected.remove(entry.getKey());
+            }
+        }
+    }
+
+    private static void assertSame(Map<Integer, Integer> expected, StrategyHashMap<Integer, Integer> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet())
+        {
+            assertEquals(entry.getValue(), actual.get(entry.getKey()));
+        }
+        int seen = 0;
+        for (Map.Entry<Integer, Integer> entry : actual.entrySet())
+        {
+            assertEquals(expected.get(entry.getKey()), entry.getValue());
+            seen++;
+        }
+        assertEquals(expected.size(), seen);
+        for (int key = 0; key < KEYS; key++)
+        {
+            assertEquals(expected.containsKey(key), actual.containsKey(key));
+        }
+    }
+}
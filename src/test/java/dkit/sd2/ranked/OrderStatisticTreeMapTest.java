@@ -0,0 +1,272 @@
+package dkit.sd2.ranked;
+
+/*                                                        October 2026
+ * Compares OrderStatisticTreeMap against java.util.TreeMap, for the whole
+ * map and for its views (subMap, headMap, tailMap, descendingMap), after
+ * random puts and removes.
+ */
+
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OrderStatisticTreeMapTest
+{
+    private static final int KEYS = 200;
+
+    private final Random random = new Random(7);
+
+    @Test
+    public void matchesTreeMapAfterRandomPutsAndRemoves()
+    {
+        for (int round = 0; round < 200; round++)
+        {
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            OrderStatisticTreeMap<Integer, Integer> actual = new OrderStatisticTreeMap<>();
+            fill(expected, actual);
+
+            assertSame(expected, actual);
+            assertSame(expected.descendingMap(), actual.descendingMap());
+            assertSame(expected, new OrderStatisticTreeMap<>(expected));   // O(n) copy
+        }
+    }
+
+    @Test
+    public void viewsMatchTreeMapViews()
+    {
+        for (int round = 0; round < 200; round++)
+        {
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            OrderStatisticTreeMap<Integer, Integer> actual = new OrderStatisticTreeMap<>();
+            fill(expected, actual);
+
+            int lo = random.nextInt(KEYS);
+            int hi = lo + random.nextInt(KEYS - lo + 1);
+            boolean loInclusive = random.nextBoolean();
+            boolean hiInclusive = random.nextBoolean();
+
+            assertSame(expected.subMap(lo, loInclusive, hi, hiInclusive),
+                    actual.subMap(lo, loInclusive, hi, hiInclusive));
+            assertSame(expected.subMap(lo, loInclusive, hi, hiInclusive).descendingMap(),
+                    actual.subMap(lo, loInclusive, hi, hiInclusive).descendingMap());
+            assertSame(expected.headMap(hi, hiInclusive), actual.headMap(hi, hiInclusive));
+            assertSame(expected.tailMap(lo, loInclusive), actual.tailMap(lo, loInclusive));
+            assertSame(expected.descendingMap().headMap(lo, loInclusive),
+                    actual.descendingMap().headMap(lo, loInclusive));
+            assertSame(expected.descendingMap().tailMap(hi, hiInclusive).subMap(hi, hiInclusive, lo, false),
+                    actual.descendingMap().tailMap(hi, hiInclusive).subMap(hi, hiInclusive, lo, false));
+
+            assertEquals(expected.subMap(lo, loInclusive, hi, hiInclusive).size(),
+                    actual.countInRange(lo, loInclusive, hi, hiInclusive));
+            assertEquals(expected.subMap(lo, hi).size(), actual.countInRange(lo, hi));
+        }
+    }
+
+    @Test
+    public void clearOnViewsRemovesOnlyTheirEntries()
+    {
+        for (int round = 0; round < 50; round++)
+        {
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            OrderStatisticTreeMap<Integer, Integer> actual = new OrderStatisticTreeMap<>();
+            fill(expected, actual);
+
+            int lo = random.nextInt(KEYS);
+            int hi = lo + random.nextInt(KEYS - lo + 1);
+            switch (round % 4)
+            {
+                case 0:
+                    expected.subMap(lo, hi).clear();
+                    actual.subMap(lo, hi).clear();
+                    break;
+                case 1:
+                    expected.headMap(hi).keySet().clear();
+                    actual.headMap(hi).keySet().clear();
+                    break;
+                case 2:
+                    expected.descendingMap().tailMap(hi, true).entrySet().clear();
+                    actual.descendingMap().tailMap(hi, true).entrySet().clear();
+                    break;
+                default:
+                    expected.tailMap(lo, false).values().clear();
+                    actual.tailMap(lo, false).values().clear();
+            }
+            assertSame(expected, actual);
+        }
+    }
+
+    @Test
+    public void pollFirstAndLastOnViews()
+    {
+        for (int round = 0; round < 50; round++)
+        {
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            OrderStatisticTreeMap<Integer, Integer> actual = new OrderStatisticTreeMap<>();
+            fill(expected, actual);
+
+            int lo = random.nextInt(KEYS);
+            int hi = lo + random.nextInt(KEYS - lo + 1);
+            NavigableMap<Integer, Integer> expectedView = expected.subMap(lo, true, hi, false);
+            NavigableMap<Integer, Integer> actualView = actual.subMap(lo, true, hi, false);
+            if (round % 2 == 1)
+            {
+                expectedView = expectedView.descendingMap();
+                actualView = actualView.descendingMap();
+            }
+
+            for (int i = 0; i < 5; i++)
+            {
+                assertEquals(expectedView.pollFirstEntry(), actualView.pollFirstEntry());
+                assertEquals(expectedView.pollLastEntry(), actualView.pollLastEntry());
+            }
+            assertSame(expected, actual);
+        }
+    }
+
+    @Test
+    public void iteratorRemoveInBothDirections()
+    {
+        for (int round = 0; round < 100; round++)
+        {
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            OrderStatisticTreeMap<Integer, Integer> actual = new OrderStatisticTreeMap<>();
+            fill(expected, actual);
+
+            int lo = random.nextInt(KEYS);
+            int hi = lo + random.nextInt(KEYS - lo + 1);
+            boolean descending = round % 2 == 1;
+            Iterator<Integer> expectedKeys = descending
+                    ? expected.subMap(lo, true, hi, false).descendingKeySet().iterator()
+                    : expected.subMap(lo, true, hi, false).keySet().iterator();
+            Iterator<Integer> actualKeys = descending
+                    ? actual.subMap(lo, hi).descendingKeySet().iterator()
+                    : actual.subMap(lo, hi).keySet().iterator();
+
+            while (expectedKeys.hasNext())
+            {
+                assertTrue(actualKeys.hasNext());
+                assertEquals(expectedKeys.next(), actualKeys.next());
+                if (random.nextInt(3) == 0)
+                {
+                    expectedKeys.remove();
+                    actualKeys.remove();
+                }
+            }
+            assertFalse(actualKeys.hasNext());
+            assertSame(expected, actual);
+        }
+    }
+
+    @Test
+    public void putOutsideViewIsRejected()
+    {
+        OrderStatisticTreeMap<Integer, Integer> map = new OrderStatisticTreeMap<>();
+        try
+        {
+            map.subMap(10, 20).put(20, 1);
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            // key is outside [10, 20)
+        }
+        try
+        {
+            map.subMap(10, 20).subMap(5, 15);
+            fail("Expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            // 5 is outside [10, 20)
+        }
+    }
+
+    @Test
+    public void keySetDoesNotSupportAdd()
+    {
+        try
+        {
+            new OrderStatisticTreeMap<Integer, Integer>().keySet().add(1);
+            fail("Expected UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException expected)
+        {
+            // as for TreeMap.keySet()
+        }
+    }
+
+    private void fill(TreeMap<Integer, Integer> expected, OrderStatisticTreeMap<Integer, Integer> actual)
+    {
+        for (int i = 0; i < 2 * KEYS; i++)
+        {
+            int key = random.nextInt(KEYS);
+            if (random.nextInt(10) < 7)
+            {
+                assertEquals(expected.put(key, i), actual.put(key, i));
+            }
+            else
+            {
+                assertEquals(expected.remove(key), actual.remove(key));
+            }
+        }
+    }
+
+    /**
+     * Checks contents, navigation and the order statistics of 'actual'
+     * against 'expected', which must hold the same view of the same data.
+     */
+    private void assertSame(NavigableMap<Integer, Integer> expected, OrderStatisticTreeMap<Integer, Integer> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+        assertEquals(expected.isEmpty() ? null : expected.firstKey(), actual.isEmpty() ? null : actual.firstKey());
+        assertEquals(expected.isEmpty() ? null : expected.lastKey(), actual.isEmpty() ? null : actual.lastKey());
+
+        List<Integer> keys = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < keys.size(); i++)
+        {
+            assertEquals(keys.get(i), actual.select(i).getKey());
+            assertEquals(i, actual.rank(keys.get(i)));
+        }
+
+        Comparator<? super Integer> order = expected.comparator() == null
+                ? Comparator.naturalOrder() : expected.comparator();
+        for (int key = -5; key < KEYS + 5; key++)
+        {
+            assertEquals(expected.ceilingKey(key), actual.ceilingKey(key));
+            assertEquals(expected.floorKey(key), actual.floorKey(key));
+            assertEquals(expected.higherKey(key), actual.higherKey(key));
+            assertEquals(expected.lowerKey(key), actual.lowerKey(key));
+            assertEquals(expected.get(key), actual.get(key));
+
+            int before = 0;
+            for (Integer k : keys)
+            {
+                if (order.compare(k, key) < 0)
+                {
+                    before++;
+                }
+            }
+            assertEquals(before, actual.rank(key));
+        }
+
+        int offset = random.nextInt(keys.size() + 2);
+        int limit = random.nextInt(5);
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(expected.entrySet());
+        assertEquals(entries.subList(Math.min(offset, keys.size()), Math.min(offset + limit, keys.size())),
+                actual.page(offset, limit));
+    }
+}
@@ -0,0 +1,55 @@
+package dkit.sd2.ranked;
+
+/*                                                        October 2026
+ * Checks OrderStatisticTreeSet against java.util.TreeSet.
+ */
+
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderStatisticTreeSetTest
+{
+    private final TreeSet<Integer> expected = new TreeSet<>(Arrays.asList(9, 1, 5, 3, 7, 2, 8));
+
+    @Test
+    public void copiesSortedSetInOrder()
+    {
+        OrderStatisticTreeSet<Integer> actual = new OrderStatisticTreeSet<>(expected);
+
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertEquals(Integer.valueOf(9), actual.select(6));
+        assertEquals(3, actual.rank(4));
+        assertEquals(Arrays.asList(3, 5), actual.page(2, 2));
+        assertEquals(3, actual.countInRange(2, 7));
+    }
+
+    @Test
+    public void descendingViews()
+    {
+        OrderStatisticTreeSet<Integer> actual = new OrderStatisticTreeSet<>(expected);
+
+        assertEquals(new ArrayList<>(expected.descendingSet().headSet(3)),
+                new ArrayList<>(actual.descendingSet().headSet(3)));
+        assertEquals(Integer.valueOf(8), actual.descendingSet().select(1));
+        assertEquals(expected.descendingSet().pollFirst(), actual.descendingSet().pollFirst());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+    }
+
+    @Test
+    public void clearOnSubSet()
+    {
+        OrderStatisticTreeSet<Integer> actual = new OrderStatisticTreeSet<>(expected);
+
+        expected.subSet(2, 5).clear();
+        actual.subSet(2, 5).clear();
+
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertEquals(expected.size(), actual.size());
+    }
+}